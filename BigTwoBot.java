@@ -0,0 +1,20 @@
+/**
+ * The BigTwoBot interface is implemented by the computer players of Big Two, which can take the seats left
+ * empty at a table (see BigTwoServer). A bot is asked for a move with a copy of the position of the game and
+ * a deadline, and must answer by the deadline without blocking. A bot may be asked for moves of many games
+ * at the same time, so implementations must be thread-safe
+ * @author karanvs
+ *
+ */
+public interface BigTwoBot {
+
+	/**
+	 * a method for choosing the move of the current player of the specified position
+	 * Only the cards of the current player, the number of cards held by the other players and the cards
+	 * played so far may be used: the cards of the other players are hidden from a fair bot
+	 * @param position A copy of the position of the game, which the bot may modify
+	 * @param deadline The time (as given by System.nanoTime()) by which the move must be chosen
+	 * @return The set of cards to play (see CardSet), or CardSet.EMPTY to pass; must be a legal move
+	 */
+	long chooseMove(BigTwoPosition position, long deadline);
+}
@@ -6,18 +6,56 @@
 public class BigTwoCard extends Card {
 	
 	// 'score' assigned to cards: A 2 3 4 5 6 7 8 9 10 J Q K
-	private int[] rankScore = {12, 13, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
+	private static final int[] RANK_SCORE = {12, 13, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
 	// can use formula (rank + 11) % 13 to reach same scoring system
 	
+	// the canonical Big Two Cards, indexed by ordinal (suit * 13 + rank)
+	private static final BigTwoCard[] CARDS = new BigTwoCard[CardSet.NUM_OF_CARDS];
+	
+	static {
+		for (int i = 0; i < CARDS.length; i++) {
+			CARDS[i] = new BigTwoCard(i / 13, i % 13);
+		}
+	}
+	
 	/**
 	 * a constructor for building a card with the specified suit and rank
+	 * (use valueOf to obtain the canonical instance instead)
 	 * @param suit The suit of the Big Two Card
 	 * @param rank The rank of the Big Two Card
 	 */
-	public BigTwoCard(int suit, int rank) {
+	private BigTwoCard(int suit, int rank) {
 		super(suit, rank);
 	}
 	
+	/**
+	 * a method for retrieving the canonical Big Two Card with the specified suit and rank
+	 * @param suit The suit of the Big Two Card
+	 * @param rank The rank of the Big Two Card
+	 * @return the canonical instance of the Big Two Card
+	 */
+	public static BigTwoCard valueOf(int suit, int rank) {
+		return CARDS[CardSet.ordinal(suit, rank)];
+	}
+	
+	/**
+	 * a method for retrieving the canonical Big Two Card with the specified ordinal
+	 * @param ordinal The ordinal (suit * 13 + rank) of the Big Two Card
+	 * @return the canonical instance of the Big Two Card
+	 */
+	public static BigTwoCard valueOf(int ordinal) {
+		return CARDS[ordinal];
+	}
+	
+	/**
+	 * a method for retrieving the score of a rank in Big Two's order (3 is lowest with 1, 2 is highest with 13)
+	 * @param rank The rank of a card
+	 * @return The score of the rank
+	 */
+	public static int getRankScore(int rank) {
+		return RANK_SCORE[rank];
+	}
+	
 	/**
 	 * Compares this card with the specified card for order (as per Big Two's rules)
 	 * 
@@ -26,9 +64,9 @@ public class BigTwoCard extends Card {
 	 *         than, equal to, or greater than the specified card (as per Big Two's rules)
 	 */
 	public int compareTo(Card card) {
-		if (rankScore[this.rank] > rankScore[card.rank]) {
+		if (RANK_SCORE[this.rank] > RANK_SCORE[card.rank]) {
 			return 1;
-		} else if (rankScore[this.rank] < rankScore[card.rank]) {
+		} else if (RANK_SCORE[this.rank] < RANK_SCORE[card.rank]) {
 			return -1;
 		} else if (this.suit > card.suit) {
 			return 1;
@@ -38,4 +76,12 @@ public class BigTwoCard extends Card {
 			return 0;
 		}
 	}
+	
+	/**
+	 * Replaces a deserialized Big Two Card with its canonical instance
+	 * @return the canonical instance of the Big Two Card
+	 */
+	protected Object readResolve() {
+		return valueOf(suit, rank);
+	}
 }
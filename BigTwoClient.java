@@ -1,5 +1,6 @@
 import java.io.*;
 import java.net.Socket;
+import java.util.concurrent.ExecutorService;
 
 import javax.swing.JOptionPane;
 
@@ -19,14 +20,23 @@ public class BigTwoClient implements NetworkGame {
 	 */
 	private Socket sock;
 	
-	private ObjectOutputStream oos;
+	// DataOutputStream to send framed messages to server
+	private DataOutputStream dos;
 	private int playerID;
 	private String playerName;
 	private String serverIP;
 	private int serverPort;
 	
-	// ObjectInputStream to receive data from server
-	private ObjectInputStream ois;
+	// DataInputStream to receive framed messages from server
+	private DataInputStream dis;
+	
+	// codec for encoding and decoding the messages
+	private final CardGameMessageCodec codec = new CardGameMessageCodec();
+	
+	// runs the task receiving messages from server (on a virtual thread if the system
+	// property "bigtwo.threadModel" is VIRTUAL, otherwise on a platform thread)
+	private final ExecutorService executor =
+			ThreadModel.fromSystemProperty(ThreadModel.PLATFORM).newExecutor("BigTwoClient");
 	
 	/**
 	 * a constructor for creating a Big Two client
@@ -118,11 +128,10 @@ public class BigTwoClient implements NetworkGame {
 			if (sock == null) {
 				sock = new Socket(serverIP, serverPort);
 				
-				oos = new ObjectOutputStream(sock.getOutputStream());
-				ois = new ObjectInputStream(sock.getInputStream());
+				dos = new DataOutputStream(new BufferedOutputStream(sock.getOutputStream()));
+				dis = new DataInputStream(new BufferedInputStream(sock.getInputStream()));
 				
-				Thread messageThread = new Thread(new ServerHandler());
-				messageThread.start();
+				executor.execute(new ServerHandler());
 				
 				gui.reset();
 				gui.disableTable();
@@ -210,11 +219,19 @@ public class BigTwoClient implements NetworkGame {
 			gui.clearMsgArea();
 			gui.enable();
 			gui.printMsg("All players have joined! Game starts!\n");
-			game.start((BigTwoDeck) message.getData());
+			// only the cards of this player are dealt, the cards of the opponents are hidden
+			game.start((CardGameDeal) message.getData());
 			break;
 		
 		case CardGameMessage.MOVE:
-			game.checkMove(message.getPlayerID(), (int[])message.getData());
+			// moves are validated by the server, so only legal moves are received (as sets of cards)
+			Long cards = (Long) message.getData();
+			game.playMove(message.getPlayerID(), (cards == null) ? CardSet.EMPTY : cards);
+			break;
+			
+		case CardGameMessage.ILLEGAL_MOVE:
+			gui.printMsg("Not a legal move!!!\n");
+			gui.promptActivePlayer();
 			break;
 			
 		case CardGameMessage.MSG:
@@ -242,7 +259,7 @@ public class BigTwoClient implements NetworkGame {
 	public synchronized void sendMessage(GameMessage message) {
 		
 		try {
-			oos.writeObject(message);
+			codec.writeMessage(dos, message);
 		} catch (Exception e) {
 			gui.printMsg("UNABLE TO SEND GameMessage OBJECT TO SERVER!");
 			e.printStackTrace();
@@ -263,7 +280,7 @@ public class BigTwoClient implements NetworkGame {
 		public void run() {
 			try {
 				GameMessage message;
-				while ((sock != null) && (message = (GameMessage) ois.readObject()) != null) {
+				while ((sock != null) && (message = codec.readMessage(dis)) != null) {
 					parseMessage(message);
 				}
 				
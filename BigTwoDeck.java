@@ -6,15 +6,12 @@
 public class BigTwoDeck extends Deck {
 
 	/**
-	 * Initializes the deck of cards (instances of BigTwoCard) (called implicitly inside the constructor).
+	 * Returns the card (an instance of BigTwoCard) with the specified suit and rank used in this deck
+	 * @param suit The suit of the Big Two Card
+	 * @param rank The rank of the Big Two Card
+	 * @return the canonical instance of the Big Two Card
 	 */
-	public void initialize() {
-		removeAllCards();
-		for (int i = 0; i < 4; i++) {
-			for (int j = 0; j < 13; j++) {
-				BigTwoCard card = new BigTwoCard(i, j);
-				addCard(card);
-			}
-		}
+	public Card cardOf(int suit, int rank) {
+		return BigTwoCard.valueOf(suit, rank);
 	}
 }
@@ -0,0 +1,493 @@
+import java.util.ArrayList;
+
+/**
+ * The BigTwoEngine class implements the rules of a Big Two card game without any user interface or network connection.
+ * It holds the state of a game and reports what happens through BigTwoEngineListener, so the rules can be run
+ * on a server, in tests or in simulations as well as behind BigTwoGUI
+ * @author karanvs
+ *
+ */
+public class BigTwoEngine implements CardGame {
+	
+	// the three of diamonds, which must be played in the first hand of a game
+	private static final Card THREE_OF_DIAMONDS = BigTwoCard.valueOf(0, 2);
+	// result of selectCards when the same card is selected more than once (not a valid card set)
+	private static final long INVALID_SELECTION = -1L;
+	
+	private int numOfPlayers;
+	private Deck deck;
+	private ArrayList<CardGamePlayer> playerList;
+	private ArrayList<Hand> handsOnTable;
+	private int currentPlayerIdx;
+	private ArrayList<BigTwoEngineListener> listeners;
+	// the generator of the legal moves, created on first use
+	private BigTwoMoveGenerator moveGenerator;
+	
+	/**
+	 * Constructor for creating the rules engine of a Big Two card game
+	 * Creates 4 players and initializes the other instance variables
+	 */
+	public BigTwoEngine() {
+		numOfPlayers = 4;
+		currentPlayerIdx = -1;
+		playerList = new ArrayList<CardGamePlayer>();
+		handsOnTable = new ArrayList<Hand>();
+		listeners = new ArrayList<BigTwoEngineListener>();
+		for (int i=0; i<numOfPlayers; i++) {
+			playerList.add(new CardGamePlayer());
+		}
+	}
+	
+	/**
+	 * Registers a listener to receive the events of this game
+	 * Listeners are notified in the order they have been added
+	 * @param listener the listener to be added
+	 */
+	public void addListener(BigTwoEngineListener listener) {
+		listeners.add(listener);
+	}
+	
+	/**
+	 * Removes a listener previously added to this game
+	 * @param listener the listener to be removed
+	 */
+	public void removeListener(BigTwoEngineListener listener) {
+		listeners.remove(listener);
+	}
+	
+	/**
+	 * Returns the number of players in this card game.
+	 * 
+	 * @return the number of players in this card game
+	 */
+	public int getNumOfPlayers() {
+		return this.numOfPlayers;
+	}
+	
+	/**
+	 * Returns the deck of cards being used in this card game.
+	 * 
+	 * @return the deck of cards being used in this card game
+	 */
+	public Deck getDeck() {
+		return this.deck;
+	}
+	
+	/**
+	 * Returns the list of players in this card game.
+	 * 
+	 * @return the list of players in this card game
+	 */
+	public ArrayList<CardGamePlayer> getPlayerList() {
+		return this.playerList;
+	}
+	
+	/**
+	 * Returns the list of hands played on the table.
+	 * 
+	 * @return the list of hands played on the table
+	 */
+	public ArrayList<Hand> getHandsOnTable() {
+		return this.handsOnTable;
+	}
+	
+	/**
+	 * Returns the index of the current player.
+	 * 
+	 * @return the index of the current player
+	 */
+	public int getCurrentPlayerIdx() {
+		return this.currentPlayerIdx;
+	}
+	
+	/**
+	 * Starts the card game.
+	 * 
+	 * @param deck the deck of (shuffled) cards to be used in this game
+	 */
+	public void start(Deck deck) {
+		// Remove all cards from all players
+		for (CardGamePlayer player : this.playerList) {
+			player.removeAllCards();
+		}
+		
+		// Remove cards from table and reset currentPlayerIdx to -1
+		this.handsOnTable.clear();
+		this.currentPlayerIdx = -1;
+		
+		// store cards in deck and remove them from deck as they're played on table
+		this.deck = deck; 
+		
+		// Distribute cards to players
+		for (int i=0; i<deck.size(); i++) {
+			// Distributes the shuffled cards in deck to the players in sequence
+			this.playerList.get(i%numOfPlayers).addCard(deck.getCard(i));
+			
+			// If card is three of diamonds, identify the player who holds it
+			if (deck.getCard(i).equals(THREE_OF_DIAMONDS)) {
+				this.currentPlayerIdx = (i%numOfPlayers);
+			}
+		}
+		
+		// sort cards in players hands once for ease of playing game
+		for (CardGamePlayer player : this.playerList) {
+			player.sortCardsInHand();
+		}
+		
+		for (BigTwoEngineListener listener : listeners) {
+			listener.turnChanged(this.currentPlayerIdx);
+		}
+	}
+	
+	/**
+	 * Starts the card game with the specified deal, e.g. the view of the deal sent to a player by the server,
+	 * in which the cards of the opponents are hidden (see CardGamePlayer.getNumOfHiddenCards())
+	 * The player holding the three of diamonds starts, so the deal must show who holds it
+	 * 
+	 * @param deal the cards dealt to the players
+	 */
+	public void start(CardGameDeal deal) {
+		for (CardGamePlayer player : this.playerList) {
+			player.removeAllCards();
+		}
+		this.handsOnTable.clear();
+		this.currentPlayerIdx = -1;
+		
+		// the cards not on the table yet
+		this.deck = new BigTwoDeck();
+		
+		for (int i=0; i<numOfPlayers; i++) {
+			CardGamePlayer player = this.playerList.get(i);
+			for (long cards = deal.getCards(i); cards != CardSet.EMPTY; cards &= cards - 1) {
+				int ordinal = Long.numberOfTrailingZeros(cards);
+				player.addCard(deck.cardOf(ordinal / 13, ordinal % 13));
+			}
+			player.setNumOfHiddenCards(deal.getNumOfHiddenCards(i));
+			player.sortCardsInHand();
+			if (CardSet.contains(deal.getCards(i), THREE_OF_DIAMONDS)) {
+				this.currentPlayerIdx = i;
+			}
+		}
+		
+		for (BigTwoEngineListener listener : listeners) {
+			listener.turnChanged(this.currentPlayerIdx);
+		}
+	}
+	
+	/**
+	 * Makes a move by the player. As this engine is not connected to anything, the move is checked directly.
+	 * 
+	 * @param playerIdx the index of the player who makes the move
+	 * @param cardIdx   the list of the indices of the cards selected by the player
+	 */
+	public void makeMove(int playerIdx, int[] cardIdx) {
+		checkMove(playerIdx, cardIdx);
+	}
+	
+	/**
+	 * Checks the move made by the player.
+	 * 
+	 * @param playerIdx the index of the player who makes the move
+	 * @param cardIdx   the list of the indices of the cards selected by the player
+	 */
+	public void checkMove(int playerIdx, int[] cardIdx) {
+		playMove(playerIdx, cardIdx);
+	}
+	
+	/**
+	 * Checks the move made by the player and plays it if it is legal
+	 * The move is validated on the set of cards selected (see CardSet) without allocating,
+	 * and a Hand is only composed once the move is accepted
+	 * 
+	 * @param playerIdx the index of the player who makes the move
+	 * @param cardIdx   the list of the indices of the cards selected by the player (null to pass)
+	 * @return true if the move is legal and has been played; false otherwise
+	 */
+	public boolean playMove(int playerIdx, int[] cardIdx) {
+		// only the current player can make a move (there is none when no game is in progress)
+		if (playerIdx < 0 || playerIdx >= numOfPlayers || playerIdx != this.currentPlayerIdx) {
+			notifyIllegalMove(playerIdx);
+			return false;
+		}
+		long selectedCards = selectCards(this.playerList.get(playerIdx).getCardsInHand(), cardIdx);
+		if (selectedCards == INVALID_SELECTION) {
+			notifyIllegalMove(playerIdx);
+			return false;
+		}
+		return playMove(playerIdx, selectedCards);
+	}
+	
+	/**
+	 * Checks the move made by the player as a set of cards and plays it if it is legal
+	 * Hidden cards of the player (see CardGamePlayer.getNumOfHiddenCards()) may be played, as in the moves
+	 * of the opponents received from the server, and are then revealed
+	 * 
+	 * @param playerIdx the index of the player who makes the move
+	 * @param cards     the set of cards played (see CardSet), or CardSet.EMPTY to pass
+	 * @return true if the move is legal and has been played; false otherwise
+	 */
+	public boolean playMove(int playerIdx, long cards) {
+		if (!isLegalMove(playerIdx, cards)) {
+			notifyIllegalMove(playerIdx);
+			return false;
+		}
+		
+		if (cards == CardSet.EMPTY) {
+			this.currentPlayerIdx = (this.currentPlayerIdx + 1) % numOfPlayers;
+			for (BigTwoEngineListener listener : listeners) {
+				listener.passed(playerIdx);
+			}
+			// after passing, prompt the next player
+			for (BigTwoEngineListener listener : listeners) {
+				listener.turnChanged(this.currentPlayerIdx);
+			}
+			return true;
+		}
+		
+		CardGamePlayer player = this.playerList.get(playerIdx);
+		long hiddenCards = cards & ~player.getCardsInHand().getCardMask();
+		if (hiddenCards != CardSet.EMPTY) {
+			// reveals the hidden cards played, which are then removed from the hand as usual
+			for (long hidden = hiddenCards; hidden != CardSet.EMPTY; hidden &= hidden - 1) {
+				int ordinal = Long.numberOfTrailingZeros(hidden);
+				player.addCard(deck.cardOf(ordinal / 13, ordinal % 13));
+			}
+			player.setNumOfHiddenCards(player.getNumOfHiddenCards() - CardSet.size(hiddenCards));
+		}
+		playValidHand(playerIdx, composeHand(player, cards));
+		return true;
+	}
+	
+	/**
+	 * Checks if the player can play the specified set of cards (or pass) in the current state of the game
+	 * This does not allocate or change the game, so it can be called for many candidate moves (e.g., by a bot)
+	 * 
+	 * @param playerIdx the index of the player who makes the move
+	 * @param cards     the set of cards to be played (see CardSet), or CardSet.EMPTY to pass
+	 * @return true if the move is legal; false otherwise
+	 */
+	public boolean isLegalMove(int playerIdx, long cards) {
+		if (playerIdx < 0 || playerIdx >= numOfPlayers || playerIdx != this.currentPlayerIdx) {
+			return false;
+		}
+		CardGamePlayer player = this.playerList.get(playerIdx);
+		Hand lastPlayed = (handsOnTable.size() == 0) ? null : this.handsOnTable.get(handsOnTable.size() - 1);
+		boolean leading = (lastPlayed == null || lastPlayed.getPlayer() == player);
+		
+		// a player who leads cannot pass
+		if (cards == CardSet.EMPTY) {
+			return !leading;
+		}
+		
+		// only cards held by the player can be played (any of them may be hidden)
+		long hiddenCards = cards & ~player.getCardsInHand().getCardMask();
+		if (hiddenCards != CardSet.EMPTY && !isHidden(playerIdx, hiddenCards)) {
+			return false;
+		}
+		
+		int strength = BigTwoHandClassifier.getStrength(cards);
+		if (strength == BigTwoHandClassifier.INVALID) {
+			return false;
+		}
+		
+		// first move needs to include 3 of diamonds
+		if (handsOnTable.isEmpty() && !CardSet.contains(cards, THREE_OF_DIAMONDS)) {
+			return false;
+		}
+		
+		// otherwise the hand must beat the last hand on the table (same size and greater strength)
+		return leading || (BigTwoHandClassifier.getSize(strength) == lastPlayed.size()
+				&& strength > lastPlayed.getStrength());
+	}
+	
+	/**
+	 * Lists the legal moves of the player in the current state of the game (see BigTwoMoveGenerator)
+	 * Like isLegalMove, this does not allocate, so it can be called by bots, hints or automatic plays
+	 * 
+	 * @param playerIdx the index of the player
+	 * @param moves     the array receiving the moves as card sets (see CardSet), with CardSet.EMPTY for a pass;
+	 *                  an array of BigTwoMoveGenerator.MAX_NUM_OF_MOVES elements is always large enough
+	 * @return the number of moves written to the array, or 0 if it is not the turn of the player
+	 */
+	public int getLegalMoves(int playerIdx, long[] moves) {
+		if (playerIdx < 0 || playerIdx >= numOfPlayers || playerIdx != this.currentPlayerIdx) {
+			return 0;
+		}
+		if (moveGenerator == null) {
+			moveGenerator = new BigTwoMoveGenerator();
+		}
+		CardGamePlayer player = this.playerList.get(playerIdx);
+		Hand lastPlayed = (handsOnTable.size() == 0) ? null : this.handsOnTable.get(handsOnTable.size() - 1);
+		boolean leading = (lastPlayed == null || lastPlayed.getPlayer() == player);
+		return moveGenerator.generate(player.getCardsInHand(), leading ? null : lastPlayed, handsOnTable.isEmpty(), moves);
+	}
+	
+	/**
+	 * Returns the set of cards selected from the cards in hand, as CardGamePlayer.play() does but without allocating
+	 * Indices out of range are ignored, and a selection without any card is a pass
+	 * @param cardsInHand the cards held by the player
+	 * @param cardIdx the list of the indices of the cards selected by the player (null to pass)
+	 * @return the set of cards selected (see CardSet), CardSet.EMPTY for a pass, or INVALID_SELECTION
+	 *         if the same card is selected more than once
+	 */
+	private static long selectCards(CardList cardsInHand, int[] cardIdx) {
+		long selectedCards = CardSet.EMPTY;
+		if (cardIdx != null) {
+			int numOfSelected = 0;
+			for (int idx : cardIdx) {
+				if (idx >= 0 && idx < cardsInHand.size()) {
+					selectedCards |= CardSet.bit(cardsInHand.getCard(idx));
+					numOfSelected++;
+				}
+			}
+			if (Long.bitCount(selectedCards) != numOfSelected) {
+				// the same card cannot be played twice
+				return INVALID_SELECTION;
+			}
+		}
+		return selectedCards;
+	}
+
+	/**
+	 * Returns the indices of the specified set of cards in the cards held by the player, i.e. the selection
+	 * to be sent in a MOVE message for a move chosen as a card set (e.g. by a bot)
+	 * @param cardsInHand the cards held by the player
+	 * @param cards the set of cards to be played (see CardSet), or CardSet.EMPTY to pass
+	 * @return the list of the indices of the cards in hand, or null for a pass
+	 */
+	public static int[] getCardIdx(CardList cardsInHand, long cards) {
+		if (cards == CardSet.EMPTY) {
+			return null;
+		}
+		int[] cardIdx = new int[CardSet.size(cards)];
+		int numOfSelected = 0;
+		for (int i = 0; i < cardsInHand.size() && numOfSelected < cardIdx.length; i++) {
+			if (CardSet.contains(cards, cardsInHand.getCard(i))) {
+				cardIdx[numOfSelected++] = i;
+			}
+		}
+		return cardIdx;
+	}
+
+	// returns true if the cards may be hidden cards of the player: they are neither on the table nor known
+	// to be held by another player
+	private boolean isHidden(int playerIdx, long cards) {
+		if (CardSet.size(cards) > this.playerList.get(playerIdx).getNumOfHiddenCards()
+				|| !CardSet.containsAll(deck.getCardMask(), cards)) {
+			return false;
+		}
+		for (int i = 0; i < numOfPlayers; i++) {
+			if ((this.playerList.get(i).getCardsInHand().getCardMask() & cards) != CardSet.EMPTY) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private void notifyIllegalMove(int playerIdx) {
+		// indexed loop: rejecting a move does not allocate
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).illegalMove(playerIdx);
+		}
+	}
+	
+	/**
+	 * Plays the hand chosen by player - adds it to hands on table, updates variables and notifies the listeners
+	 * @param playerIdx The index of the active player 
+	 * @param playingHand The hand the player wishes to play
+	 */
+	private void playValidHand(int playerIdx, Hand playingHand) {
+		
+		CardGamePlayer player = this.playerList.get(playerIdx);
+		player.removeCards(playingHand);
+		player.sortCardsInHand();
+		
+		for(int i = 0; i < playingHand.size(); i++) {
+			deck.removeCard(playingHand.getCard(i));
+		}
+		
+		handsOnTable.add(playingHand);
+		this.currentPlayerIdx = (this.currentPlayerIdx + 1) % numOfPlayers;
+		
+		for (BigTwoEngineListener listener : listeners) {
+			listener.handPlayed(playerIdx, playingHand);
+		}
+		
+		if (endOfGame()) {
+			this.currentPlayerIdx = -1;
+			for (BigTwoEngineListener listener : listeners) {
+				listener.gameEnded();
+			}
+		} else {
+			for (BigTwoEngineListener listener : listeners) {
+				listener.turnChanged(this.currentPlayerIdx);
+			}
+		}
+	}
+	
+	/**
+	 * Checks for end of game.
+	 * 
+	 * @return true if the game ends; false otherwise
+	 */
+	public boolean endOfGame() {
+		for (CardGamePlayer player : playerList) {
+			if (player.getNumOfCards() == 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * a method for returning the hand formed by the specified set of cards held by the player
+	 * The cards are taken from the hand of the player, so the hand shares the player's Card objects
+	 * @param player The player the cards belong to
+	 * @param cards The set of cards (see CardSet) the player wishes to play
+	 * @return A valid sub type of Hand with specified cards or null if no valid hand can be formed
+	 */
+	public static Hand composeHand(CardGamePlayer player, long cards) {
+		CardList cardsInHand = player.getCardsInHand();
+		CardList selected = new CardList();
+		for (int i = 0; i < cardsInHand.size(); i++) {
+			if (CardSet.contains(cards, cardsInHand.getCard(i))) {
+				selected.addCard(cardsInHand.getCard(i));
+			}
+		}
+		return composeHand(player, selected);
+	}
+	
+	/**
+	 * a method for returning a valid hand from the specified list of cards of the player
+	 * @param player The player the cards belong to
+	 * @param cards The list of cards the player wishes to play
+	 * @return A valid sub type of Hand with specified cards or null if no valid hand can be formed
+	 */
+	public static Hand composeHand(CardGamePlayer player, CardList cards) {
+		long cardMask = cards.getCardMask();
+		if (CardSet.size(cardMask) != cards.size()) {
+			// the same card cannot be played twice
+			return null;
+		}
+		switch (BigTwoHandClassifier.classify(cardMask)) {
+			case BigTwoHandClassifier.SINGLE:
+				return new Single(player, cards);
+			case BigTwoHandClassifier.PAIR:
+				return new Pair(player, cards);
+			case BigTwoHandClassifier.TRIPLE:
+				return new Triple(player, cards);
+			case BigTwoHandClassifier.STRAIGHT_FLUSH:
+				return new StraightFlush(player, cards);
+			case BigTwoHandClassifier.QUAD:
+				return new Quad(player, cards);
+			case BigTwoHandClassifier.FULL_HOUSE:
+				return new FullHouse(player, cards);
+			case BigTwoHandClassifier.FLUSH:
+				return new Flush(player, cards);
+			case BigTwoHandClassifier.STRAIGHT:
+				return new Straight(player, cards);
+			default:
+				return null;
+		}
+	}
+}
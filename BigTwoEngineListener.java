@@ -0,0 +1,43 @@
+/**
+ * The BigTwoEngineListener interface is used to receive the events of a game run by BigTwoEngine
+ * (e.g. to update a user interface). All methods do nothing by default.
+ * @author karanvs
+ *
+ */
+public interface BigTwoEngineListener {
+	
+	/**
+	 * Called when it is the turn of the specified player (after the game starts and after each accepted move)
+	 * @param playerIdx the index of the player who has to make a move
+	 */
+	public default void turnChanged(int playerIdx) {
+	}
+	
+	/**
+	 * Called when the specified player makes a move which is not legal
+	 * @param playerIdx the index of the player who made the move
+	 */
+	public default void illegalMove(int playerIdx) {
+	}
+	
+	/**
+	 * Called when the specified player passes
+	 * @param playerIdx the index of the player who passed
+	 */
+	public default void passed(int playerIdx) {
+	}
+	
+	/**
+	 * Called when the specified player plays a valid hand
+	 * @param playerIdx the index of the player who played the hand
+	 * @param hand the hand which has been played
+	 */
+	public default void handPlayed(int playerIdx, Hand hand) {
+	}
+	
+	/**
+	 * Called when a player has played all his/her cards and the game ends
+	 */
+	public default void gameEnded() {
+	}
+}
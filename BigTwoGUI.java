@@ -7,11 +7,11 @@ import javax.swing.text.DefaultCaret;
 
 /**
  * BigTwoGUI used to build a GUI for the Big Two card game and handle all user actions
- * Implements the CardGameUI interface
+ * Implements the CardGameUI interface, and subscribes to the events of the game's BigTwoEngine
  * @author karanvs
  *
  */
-public class BigTwoGUI implements CardGameUI {
+public class BigTwoGUI implements CardGameUI, BigTwoEngineListener {
 	
 	private final static int MAX_CARD_NUM = 13;
 	private BigTwo game = null;
@@ -256,8 +256,9 @@ public class BigTwoGUI implements CardGameUI {
 				
 				// print cards of player
 				for (int j=0; j<player.getNumOfCards(); j++) {
+					// hidden cards of the opponents (after the known ones) are null
 					Card card = player.getCardsInHand().getCard(j);
-					if (i == game.getPlayerID() || activePlayer == -1) {
+					if (card != null && (i == game.getPlayerID() || activePlayer == -1)) {
 						int raiseBy = 0;
 						if (selected[j])
 							raiseBy = cardRaiseY;
@@ -465,6 +466,89 @@ public class BigTwoGUI implements CardGameUI {
 		printMsg(message);
 	}
 	
+	/**
+	 * Sets the active player, enables the table only if it is the local player's turn and prompts the active player
+	 * @param playerIdx the index of the player who has to make a move
+	 */
+	public void turnChanged(int playerIdx) {
+		setActivePlayer(playerIdx);
+		if (game.getPlayerID() == playerIdx)
+			enableTable();
+		else
+			disableTable();
+		repaint();
+		promptActivePlayer();
+	}
+	
+	/**
+	 * Informs the user that a move is not legal and prompts the active player again
+	 * @param playerIdx the index of the player who made the move
+	 */
+	public void illegalMove(int playerIdx) {
+		if (game.getPlayerID() == activePlayer)
+			enableTable();
+		else
+			disableTable();
+		printMsg("Not a legal move!!!\n");
+		promptActivePlayer();
+	}
+	
+	/**
+	 * Prints out that the player has passed
+	 * @param playerIdx the index of the player who passed
+	 */
+	public void passed(int playerIdx) {
+		printMsg("{Pass}\n");
+	}
+	
+	/**
+	 * Prints out the type and cards of the hand played
+	 * @param playerIdx the index of the player who played the hand
+	 * @param playingHand the hand which has been played
+	 */
+	public void handPlayed(int playerIdx, Hand playingHand) {
+		printMsg(String.format("{%s} ", playingHand.getType()));
+		if (playingHand.size() > 0) {
+			for (int i = 0; i < playingHand.size(); i++) {
+				String string = "";
+				string = string + "[" + playingHand.getCard(i) + "]";
+				if (i % 13 != 0) {
+					string = " " + string;
+				}
+				printMsg(string);
+				if (i % 13 == 12 || i == playingHand.size() - 1) {
+					printMsg("");
+				}
+			}
+		}
+		printMsg("\n");
+		repaint();
+	}
+	
+	/**
+	 * Disables the GUI and shows the results of the game
+	 */
+	public void gameEnded() {
+		clearMsgArea();
+		String gameOverText = "";
+		
+		setActivePlayer(-1);
+		disable();
+		repaint();
+		gameOverText += "\nGame ends\n";
+		ArrayList<CardGamePlayer> playerList = game.getPlayerList();
+		for (int i = 0; i < playerList.size(); i++) {
+			if (playerList.get(i).getNumOfCards() == 0) {
+				gameOverText += playerList.get(i).getName() + " wins the game.\n";
+			}
+			else {
+				gameOverText += playerList.get(i).getName() + " has " + playerList.get(i).getNumOfCards() + " cards in hand.\n";
+			}
+		}
+		printMsg(gameOverText+"\n");
+		displayDialog(gameOverText);
+	}
+	
 	/**
 	 * Returns an array of indices of the cards selected through the UI.
 	 * Adapted from Professor Kenneth Wong's code
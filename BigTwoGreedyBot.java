@@ -0,0 +1,65 @@
+/**
+ * The BigTwoGreedyBot class models a simple Big Two bot, which sheds its weakest combination: when it
+ * leads, it plays the largest hand whose top card has the lowest rank (e.g. a pair of 3s rather than
+ * the single 3), and otherwise it plays the weakest hand beating the last hand on the table (passing
+ * only when there is none). It chooses a move in a few microseconds, and is used by
+ * BigTwoMonteCarloBot when it runs out of time
+ * @author karanvs
+ *
+ */
+public class BigTwoGreedyBot implements BigTwoBot {
+
+	// the scratch state of each thread choosing moves
+	private static final ThreadLocal<long[]> MOVES = ThreadLocal.withInitial(() -> new long[BigTwoMoveGenerator.MAX_NUM_OF_MOVES]);
+	private static final ThreadLocal<BigTwoMoveGenerator> GENERATOR = ThreadLocal.withInitial(BigTwoMoveGenerator::new);
+
+	/**
+	 * a method for choosing the weakest legal combination of the current player, or a pass if there is none
+	 * @param position The position of the game
+	 * @param deadline Not used, as the move is chosen at once
+	 * @return The set of cards to play (see CardSet), or CardSet.EMPTY to pass
+	 */
+	public long chooseMove(BigTwoPosition position, long deadline) {
+		long[] moves = MOVES.get();
+		int numOfMoves = position.getLegalMoves(GENERATOR.get(), moves);
+		return weakestMove(moves, numOfMoves);
+	}
+
+	/**
+	 * a method for retrieving the weakest combination among the specified moves
+	 * The moves of a leading player (which include no pass, see BigTwoMoveGenerator) are compared by the
+	 * rank of their top cards first, then the hands of more cards come first, so the lowest cards are
+	 * shed in the largest combination holding them; the other moves all have the size of the hand to
+	 * beat, and are compared by their strength keys
+	 * @param moves The moves as card sets (see CardSet), with CardSet.EMPTY for a pass
+	 * @param numOfMoves The number of moves
+	 * @return The weakest combination among the moves, or CardSet.EMPTY if all the moves are passes
+	 */
+	static long weakestMove(long[] moves, int numOfMoves) {
+		boolean leading = true;
+		for (int i = 0; i < numOfMoves && leading; i++) {
+			leading = (moves[i] != CardSet.EMPTY);
+		}
+		long weakest = CardSet.EMPTY;
+		int weakestKey = Integer.MAX_VALUE;
+		for (int i = 0; i < numOfMoves; i++) {
+			if (moves[i] != CardSet.EMPTY) {
+				int strength = BigTwoHandClassifier.getStrength(moves[i]);
+				int key = leading ? getLeadKey(moves[i], strength) : strength;
+				if (key < weakestKey) {
+					weakest = moves[i];
+					weakestKey = key;
+				}
+			}
+		}
+		return weakest;
+	}
+
+	// returns the key of a hand led (the lowest first): the rank score of its top card, then its number of
+	// cards (at most 5, the most first), then its strength key (which is below 1 << 12)
+	private static int getLeadKey(long cards, int strength) {
+		int category = BigTwoHandClassifier.getCategory(strength);
+		int score = BigTwoCard.getRankScore(BigTwoHandClassifier.getTopCard(cards, category) % 13);
+		return (((score << 3) | (5 - BigTwoHandClassifier.getSize(strength))) << 12) | strength;
+	}
+}
@@ -0,0 +1,188 @@
+/**
+ * The BigTwoHandClassifier class classifies a set of cards (see CardSet) as a Big Two hand in a single pass.
+ * It works on the rank masks of the four suits and a precomputed straight table, so validating a selection
+ * costs a few bit operations and one table lookup instead of composing and sorting each subclass of Hand.
+ * It also computes a strength key for a hand, so that comparing two hands is a single integer comparison.
+ * @author karanvs
+ *
+ */
+public final class BigTwoHandClassifier {
+
+	/**
+	 * Category of a set of cards which does not form a valid hand
+	 */
+	public static final int INVALID = -1;
+	/**
+	 * Category of a Single hand
+	 */
+	public static final int SINGLE = 0;
+	/**
+	 * Category of a Pair hand
+	 */
+	public static final int PAIR = 1;
+	/**
+	 * Category of a Triple hand
+	 */
+	public static final int TRIPLE = 2;
+	/**
+	 * Category of a Straight hand (the lowest 5-card hand)
+	 */
+	public static final int STRAIGHT = 3;
+	/**
+	 * Category of a Flush hand
+	 */
+	public static final int FLUSH = 4;
+	/**
+	 * Category of a Full House hand
+	 */
+	public static final int FULL_HOUSE = 5;
+	/**
+	 * Category of a Quad hand
+	 */
+	public static final int QUAD = 6;
+	/**
+	 * Category of a Straight Flush hand (the highest 5-card hand)
+	 */
+	public static final int STRAIGHT_FLUSH = 7;
+
+	// mask of the 13 rank bits of a suit in a card set
+	private static final int RANKS = 0x1FFF;
+	// multiplying a rank mask by this copies it into the bits of all four suits
+	private static final long ALL_SUITS = 1L | (1L << 13) | (1L << 26) | (1L << 39);
+	// top rank of the straight formed by a rank mask, or -1 if the ranks do not form a straight
+	private static final byte[] STRAIGHT_TOP_RANK = new byte[1 << 13];
+
+	static {
+		java.util.Arrays.fill(STRAIGHT_TOP_RANK, (byte) -1);
+		// straights run from 3-4-5-6-7 (scores 1 to 5) up to J-Q-K-A-2 (scores 9 to 13)
+		for (int lowScore = 1; lowScore <= 9; lowScore++) {
+			int ranks = 0;
+			for (int score = lowScore; score < lowScore + 5; score++) {
+				ranks |= 1 << rankOfScore(score);
+			}
+			STRAIGHT_TOP_RANK[ranks] = (byte) rankOfScore(lowScore + 4);
+		}
+	}
+
+	private BigTwoHandClassifier() {
+	}
+
+	// inverse of BigTwoCard.getRankScore
+	private static int rankOfScore(int score) {
+		return (score + 1) % 13;
+	}
+
+	// rank mask of the cards of the specified suit in a card set
+	private static int suitRanks(long cards, int suit) {
+		return (int) (cards >>> (13 * suit)) & RANKS;
+	}
+
+	/**
+	 * a method for classifying a set of cards as a Big Two hand
+	 * Gives the same result as trying StraightFlush, Quad, FullHouse, Flush and Straight (or Single, Pair
+	 * and Triple) in turn, as done in BigTwo.composeHand
+	 * @param cards The set of cards (see CardSet)
+	 * @return The category of the hand (e.g. FLUSH), or INVALID if the cards do not form a valid hand
+	 */
+	public static int classify(long cards) {
+		int s0 = suitRanks(cards, 0), s1 = suitRanks(cards, 1), s2 = suitRanks(cards, 2), s3 = suitRanks(cards, 3);
+		int ranks = s0 | s1 | s2 | s3;
+		int numOfRanks = Integer.bitCount(ranks);
+
+		switch (Long.bitCount(cards)) {
+			case 1:
+				return SINGLE;
+			case 2:
+				return (numOfRanks == 1) ? PAIR : INVALID;
+			case 3:
+				return (numOfRanks == 1) ? TRIPLE : INVALID;
+			case 5:
+				// five cards of one suit have five distinct ranks in that suit
+				boolean flush = (s0 == ranks || s1 == ranks || s2 == ranks || s3 == ranks) && numOfRanks == 5;
+				boolean straight = STRAIGHT_TOP_RANK[ranks] >= 0;
+				if (straight && flush) {
+					return STRAIGHT_FLUSH;
+				}
+				if (numOfRanks == 2) {
+					// a rank held in all four suits makes it a quad, otherwise it is a 3 + 2 split
+					return ((s0 & s1 & s2 & s3) != 0) ? QUAD : FULL_HOUSE;
+				}
+				if (flush) {
+					return FLUSH;
+				}
+				if (straight) {
+					return STRAIGHT;
+				}
+				return INVALID;
+			default:
+				return INVALID;
+		}
+	}
+
+	/**
+	 * a method for retrieving the top card of a hand of the specified category
+	 * The top card is the highest card (as per Big Two's rules), except for a Full House or a Quad
+	 * where it is the highest card of the triple or quad
+	 * @param cards The set of cards of a valid hand (see CardSet)
+	 * @param category The category of the hand
+	 * @return The ordinal of the top card
+	 */
+	public static int getTopCard(long cards, int category) {
+		if (category == FULL_HOUSE || category == QUAD) {
+			int s0 = suitRanks(cards, 0), s1 = suitRanks(cards, 1), s2 = suitRanks(cards, 2), s3 = suitRanks(cards, 3);
+			// ranks held in at least three suits
+			int tripleRanks = (s0 & s1 & (s2 | s3)) | ((s0 | s1) & s2 & s3);
+			cards &= tripleRanks * ALL_SUITS;
+		}
+		int ranks = suitRanks(cards, 0) | suitRanks(cards, 1) | suitRanks(cards, 2) | suitRanks(cards, 3);
+		// 2 is the highest rank, followed by A, then K down to 3
+		int rank = ((ranks & 2) != 0) ? 1 : ((ranks & 1) != 0) ? 0 : 31 - Integer.numberOfLeadingZeros(ranks);
+		// the highest suit holding that rank
+		int suit = (63 - Long.numberOfLeadingZeros((cards >>> rank) & ALL_SUITS)) / 13;
+		return CardSet.ordinal(suit, rank);
+	}
+
+	/**
+	 * a method for computing the strength key of a hand of the specified category
+	 * A hand beats another hand if and only if both have the same size (see getSize) and its strength is greater
+	 * @param cards The set of cards of a valid hand (see CardSet)
+	 * @param category The category of the hand
+	 * @return The strength key of the hand
+	 */
+	public static int getStrength(long cards, int category) {
+		int topCard = getTopCard(cards, category);
+		int suit = topCard / 13;
+		int score = BigTwoCard.getRankScore(topCard % 13);
+		// flushes are compared by the suit of their top cards first
+		int order = (category == FLUSH) ? (suit * 16 + score) : (score * 4 + suit);
+		return (Long.bitCount(cards) << 9) | (category << 6) | order;
+	}
+
+	/**
+	 * a method for computing the strength key of a set of cards
+	 * @param cards The set of cards (see CardSet)
+	 * @return The strength key of the hand formed by the cards, or INVALID if the cards do not form a valid hand
+	 */
+	public static int getStrength(long cards) {
+		int category = classify(cards);
+		return (category == INVALID) ? INVALID : getStrength(cards, category);
+	}
+
+	/**
+	 * a method for retrieving the number of cards of a hand from its strength key
+	 * @param strength The strength key of a hand
+	 * @return The number of cards in the hand
+	 */
+	public static int getSize(int strength) {
+		return strength >>> 9;
+	}
+
+	/**
+	 * a method for retrieving the category of a hand from its strength key
+	 * @param strength The strength key of a hand
+	 * @return The category of the hand
+	 */
+	public static int getCategory(int strength) {
+		return (strength >>> 6) & 7;
+	}
+}
@@ -0,0 +1,651 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+/**
+ * This class is used to generate load on a Big Two server with simulated
+ * clients (bots). Each bot speaks the same protocol as BigTwoClient: it joins a
+ * room, gets ready, plays legal moves when it is its turn, sends chat messages
+ * and, after a game, may disconnect and connect again (churn). The generator
+ * reports the end-to-end move latency (from sending a MOVE to receiving it back
+ * from the server), the throughput, and the resource use of the server, which
+ * is read through JMX. The latencies are recorded in a ServerMetrics.Histogram,
+ * so the percentiles reported are within 1/16 of the exact ones.
+ * <p>
+ * The server can be a remote one (its JMX agent given with --jmx) or run
+ * in-process with --embedded, in which case the CPU, heap and thread figures
+ * also include the bots.
+ *
+ * @author karanvs
+ *
+ */
+public class BigTwoLoadGenerator {
+	/**
+	 * The default number of bots.
+	 */
+	public static final int DEFAULT_NUM_OF_CLIENTS = 400;
+	/**
+	 * The default duration (in seconds) of a run.
+	 */
+	public static final int DEFAULT_DURATION = 60;
+	/**
+	 * The default time (in milliseconds) a bot thinks before making a move.
+	 */
+	public static final int DEFAULT_THINK_TIME = 100;
+	// the time (in milliseconds) a bot waits before connecting again
+	private static final int RECONNECT_DELAY = 1000;
+
+	// the address of the server
+	private final String host;
+	private final int port;
+	// the parameters of the bots
+	private final int numOfClients;
+	private final int thinkTime;
+	private final double chatRate;
+	private final double churnRate;
+	// the JMX connection to the server, or null if its resource use is not reported
+	private MBeanServerConnection mbeans = null;
+
+	// true while the bots are playing
+	private volatile boolean running = false;
+	// the sockets of the bots connected, closed when the run ends
+	private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+	// the statistics of the run
+	private final ServerMetrics.Histogram moveLatency = new ServerMetrics.Histogram();
+	private final AtomicInteger connectedClients = new AtomicInteger();
+	private final LongAdder connects = new LongAdder();
+	private final LongAdder rejectedConnects = new LongAdder();
+	private final LongAdder churnDisconnects = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder messagesReceived = new LongAdder();
+	private final LongAdder movesPlayed = new LongAdder();
+	private final LongAdder illegalMoves = new LongAdder();
+	private final LongAdder chatMessagesSent = new LongAdder();
+	private final LongAdder gamesFinished = new LongAdder();
+
+	/**
+	 * Creates and returns an instance of the BigTwoLoadGenerator class.
+	 *
+	 * @param host
+	 *            the host name of the server
+	 * @param port
+	 *            the port of the server
+	 * @param numOfClients
+	 *            the number of bots
+	 * @param thinkTime
+	 *            the mean time (in milliseconds) a bot thinks before making a
+	 *            move
+	 * @param chatRate
+	 *            the probability that a bot sends a chat message on its turn
+	 * @param churnRate
+	 *            the probability that a bot disconnects and connects again
+	 *            after a game
+	 */
+	public BigTwoLoadGenerator(String host, int port, int numOfClients,
+			int thinkTime, double chatRate, double churnRate) {
+		this.host = host;
+		this.port = port;
+		this.numOfClients = numOfClients;
+		this.thinkTime = thinkTime;
+		this.chatRate = chatRate;
+		this.churnRate = churnRate;
+	}
+
+	/**
+	 * Sets the JMX connection through which the resource use of the server is
+	 * read.
+	 *
+	 * @param mbeans
+	 *            the JMX connection to the server, or null if the resource
+	 *            use of the server is not reported
+	 */
+	public void setServerConnection(MBeanServerConnection mbeans) {
+		this.mbeans = mbeans;
+	}
+
+	/**
+	 * Runs the bots for the specified duration, printing a report to the
+	 * standard output periodically and at the end of the run.
+	 *
+	 * @param threadModel
+	 *            the threads running the bots (PLATFORM or VIRTUAL)
+	 * @param rampUpMillis
+	 *            the time (in milliseconds) over which the bots are started
+	 * @param durationMillis
+	 *            the duration (in milliseconds) of the run, including the
+	 *            ramp-up
+	 * @param reportInterval
+	 *            the time (in seconds) between two periodic reports, or 0 for
+	 *            no periodic reports
+	 * @throws InterruptedException
+	 *             if the run is interrupted
+	 */
+	public void run(ThreadModel threadModel, long rampUpMillis,
+			long durationMillis, int reportInterval) throws InterruptedException {
+		ExecutorService executor = threadModel.newExecutor("BigTwoBot");
+		ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "BigTwoLoadGenerator-report");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long startTime = System.nanoTime();
+		if (reportInterval > 0) {
+			Interval interval = new Interval(startTime);
+			reporter.scheduleAtFixedRate(() -> System.out.println(interval.next()),
+					reportInterval, reportInterval, TimeUnit.SECONDS);
+		}
+
+		// starts the bots evenly over the ramp-up
+		running = true;
+		for (int i = 0; i < numOfClients; i++) {
+			executor.execute(new Bot("bot" + i));
+			if (rampUpMillis > 0) {
+				Thread.sleep(rampUpMillis / numOfClients);
+			}
+		}
+		long remaining = durationMillis - (System.nanoTime() - startTime) / 1000000;
+		if (remaining > 0) {
+			Thread.sleep(remaining);
+		}
+
+		// stops the bots by closing their sockets
+		running = false;
+		reporter.shutdownNow();
+		for (Socket socket : sockets) {
+			try {
+				socket.close();
+			} catch (IOException ex) {
+				// already closed
+			}
+		}
+		executor.shutdownNow();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+		System.out.println(getSummary((System.nanoTime() - startTime) / 1e9));
+	}
+
+	/**
+	 * Returns the summary of the run.
+	 *
+	 * @param seconds
+	 *            the duration of the run, in seconds
+	 * @return the summary of the run
+	 */
+	private String getSummary(double seconds) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("Load test summary (%d clients, %.1f s)%n", numOfClients, seconds));
+		sb.append(String.format("  connections: %d connects, %d rejected (room full), %d churned, %d errors%n",
+				connects.sum(), rejectedConnects.sum(), churnDisconnects.sum(), errors.sum()));
+		sb.append(String.format("  throughput: %.1f moves/s, %.2f games/s, %.1f messages received/s%n",
+				movesPlayed.sum() / seconds, gamesFinished.sum() / seconds,
+				messagesReceived.sum() / seconds));
+		sb.append(String.format("  moves: %d played, %d illegal, %d chat messages sent%n",
+				movesPlayed.sum(), illegalMoves.sum(), chatMessagesSent.sum()));
+		sb.append(String.format("  move latency (us): mean %.1f, p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+				moveLatency.getMean(), moveLatency.getPercentile(50),
+				moveLatency.getPercentile(90), moveLatency.getPercentile(99),
+				moveLatency.getPercentile(99.9), moveLatency.getMax()));
+		String server = getServerReport();
+		if (server != null) {
+			sb.append("  server: ").append(server).append(String.format("%n"));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Returns a one-line report of the resource use of the server, read
+	 * through JMX.
+	 *
+	 * @return the report, or null if the resource use of the server is not
+	 *         reported
+	 */
+	private String getServerReport() {
+		if (mbeans == null) {
+			return null;
+		}
+		StringBuilder sb = new StringBuilder();
+		try {
+			for (ObjectName name : mbeans.queryNames(new ObjectName("BigTwo:type=ServerMetrics,*"), null)) {
+				sb.append(String.format("connections %d, games in progress %d, queued %d B, "
+						+ "broadcast p99 %.1f us, lock wait p99 %.1f us, dropped %d, slow disconnects %d, ",
+						mbeans.getAttribute(name, "ActiveConnections"),
+						mbeans.getAttribute(name, "GamesInProgress"),
+						mbeans.getAttribute(name, "TotalQueuedBytes"),
+						mbeans.getAttribute(name, "BroadcastLatencyP99"),
+						mbeans.getAttribute(name, "LockWaitP99"),
+						mbeans.getAttribute(name, "MessagesDropped"),
+						mbeans.getAttribute(name, "SlowClientDisconnects")));
+			}
+			CompositeData heap = (CompositeData) mbeans.getAttribute(
+					new ObjectName(ManagementFactory.MEMORY_MXBEAN_NAME), "HeapMemoryUsage");
+			sb.append(String.format("heap %d MB, threads %d",
+					(Long) heap.get("used") / (1024 * 1024),
+					mbeans.getAttribute(new ObjectName(ManagementFactory.THREAD_MXBEAN_NAME), "ThreadCount")));
+			try {
+				// only available on JVMs with the com.sun.management extensions
+				double cpu = (Double) mbeans.getAttribute(
+						new ObjectName(ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME), "ProcessCpuLoad");
+				if (cpu >= 0) {
+					sb.append(String.format(", cpu %.0f%%", cpu * 100));
+				}
+			} catch (Exception ex) {
+				// no CPU load
+			}
+		} catch (Exception ex) {
+			sb.append("unavailable (").append(ex).append(')');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * This inner class is used to compute the statistics of the interval
+	 * since the previous periodic report.
+	 *
+	 * @author karanvs
+	 *
+	 */
+	private class Interval {
+		private long time;
+		private long moves = 0;
+		private long games = 0;
+		private long latencyCount = 0;
+
+		private Interval(long startTime) {
+			time = startTime;
+		}
+
+		/**
+		 * Returns the report of the interval since the previous call, and
+		 * starts a new interval.
+		 *
+		 * @return the report of the interval
+		 */
+		private String next() {
+			long now = System.nanoTime();
+			double seconds = (now - time) / 1e9;
+			long totalMoves = movesPlayed.sum();
+			long totalGames = gamesFinished.sum();
+			String report = String.format("clients %d, %.1f moves/s, %.2f games/s, "
+					+ "move latency p99 %.1f us since start (%d new moves), illegal %d, errors %d",
+					connectedClients.get(), (totalMoves - moves) / seconds,
+					(totalGames - games) / seconds, moveLatency.getPercentile(99),
+					moveLatency.getCount() - latencyCount, illegalMoves.sum(), errors.sum());
+			String server = getServerReport();
+			time = now;
+			moves = totalMoves;
+			games = totalGames;
+			latencyCount = moveLatency.getCount();
+			return (server == null) ? report : report + " | " + server;
+		}
+	}
+
+	/**
+	 * This inner class is used to model a simulated client, which connects to
+	 * the server again whenever its connection ends until the run ends.
+	 *
+	 * @author karanvs
+	 *
+	 */
+	private class Bot implements Runnable {
+		private final String name;
+		private final CardGameMessageCodec codec = new CardGameMessageCodec();
+		// the state of the game, as seen by this bot
+		private BigTwoEngine engine;
+		private boolean inGame;
+		private int playerID;
+		// the time at which the pending move was sent, or 0 if there is none
+		private long moveSentAt;
+
+		private Bot(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				try {
+					if (!play()) {
+						Thread.sleep(RECONNECT_DELAY);
+					}
+				} catch (InterruptedException ex) {
+					return;
+				} catch (Exception ex) {
+					if (running) {
+						errors.increment();
+						try {
+							Thread.sleep(RECONNECT_DELAY);
+						} catch (InterruptedException ie) {
+							return;
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Connects to the server and plays until this bot churns, the room is
+		 * full or the run ends.
+		 *
+		 * @return true if this bot churns; false if the room is full
+		 * @throws IOException
+		 *             if the connection fails
+		 * @throws InterruptedException
+		 *             if the bot is interrupted while thinking
+		 */
+		private boolean play() throws IOException, InterruptedException {
+			engine = new BigTwoEngine();
+			inGame = false;
+			playerID = -1;
+			moveSentAt = 0;
+			try (Socket socket = new Socket(host, port)) {
+				sockets.add(socket);
+				socket.setTcpNoDelay(true);
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+				connects.increment();
+				connectedClients.incrementAndGet();
+				try {
+					while (running) {
+						CardGameMessage message = codec.readMessage(in);
+						messagesReceived.increment();
+						switch (message.getType()) {
+						case CardGameMessage.PLAYER_LIST:
+							playerID = message.getPlayerID();
+							send(out, CardGameMessage.JOIN, name);
+							break;
+						case CardGameMessage.FULL:
+							rejectedConnects.increment();
+							return false;
+						case CardGameMessage.JOIN:
+							if (message.getPlayerID() == playerID) {
+								send(out, CardGameMessage.READY, null);
+							}
+							break;
+						case CardGameMessage.QUIT:
+							// the game in progress is stopped: gets ready for the next one
+							if (inGame) {
+								inGame = false;
+								moveSentAt = 0;
+								send(out, CardGameMessage.READY, null);
+							}
+							break;
+						case CardGameMessage.START:
+							engine.start((CardGameDeal) message.getData());
+							inGame = true;
+							break;
+						case CardGameMessage.MOVE:
+							if (message.getPlayerID() == playerID && moveSentAt != 0) {
+								moveLatency.record(System.nanoTime() - moveSentAt);
+								moveSentAt = 0;
+								movesPlayed.increment();
+							}
+							Long cards = (Long) message.getData();
+							engine.playMove(message.getPlayerID(), (cards == null) ? CardSet.EMPTY : cards);
+							if (inGame && engine.endOfGame()) {
+								inGame = false;
+								// the winner counts the game
+								if (message.getPlayerID() == playerID) {
+									gamesFinished.increment();
+								}
+								if (ThreadLocalRandom.current().nextDouble() < churnRate) {
+									churnDisconnects.increment();
+									return true;
+								}
+								send(out, CardGameMessage.READY, null);
+							}
+							break;
+						case CardGameMessage.ILLEGAL_MOVE:
+							illegalMoves.increment();
+							moveSentAt = 0;
+							break;
+						default:
+							break;
+						}
+						if (inGame && moveSentAt == 0 && engine.getCurrentPlayerIdx() == playerID
+								&& (message.getType() == CardGameMessage.START
+										|| message.getType() == CardGameMessage.MOVE
+										|| message.getType() == CardGameMessage.ILLEGAL_MOVE)) {
+							makeMove(out, message.getType() == CardGameMessage.ILLEGAL_MOVE);
+						}
+					}
+					return true;
+				} finally {
+					connectedClients.decrementAndGet();
+					sockets.remove(socket);
+				}
+			}
+		}
+
+		/**
+		 * Thinks, possibly sends a chat message, and makes a move.
+		 *
+		 * @param out
+		 *            the output stream to the server
+		 * @param rejected
+		 *            true if the previous move was rejected, in which case the
+		 *            simplest legal move is made
+		 */
+		private void makeMove(DataOutputStream out, boolean rejected)
+				throws IOException, InterruptedException {
+			if (thinkTime > 0) {
+				Thread.sleep(ThreadLocalRandom.current().nextInt(thinkTime / 2, thinkTime * 3 / 2 + 1));
+			}
+			if (ThreadLocalRandom.current().nextDouble() < chatRate) {
+				chatMessagesSent.increment();
+				send(out, CardGameMessage.MSG, "Your turn after mine!");
+			}
+			int[] cardIdx = rejected ? null : chooseMove(engine, playerID);
+			if (rejected && isLeading(engine, playerID)) {
+				cardIdx = new int[] { 0 };
+			}
+			moveSentAt = System.nanoTime();
+			send(out, CardGameMessage.MOVE, cardIdx);
+		}
+
+		/**
+		 * Sends a message of the specified type to the server.
+		 */
+		private void send(DataOutputStream out, int type, Object data) throws IOException {
+			codec.writeMessage(out, new CardGameMessage(type, -1, data));
+		}
+	}
+
+	/**
+	 * Returns true if the specified player leads, i.e., may play any hand.
+	 *
+	 * @param engine
+	 *            the state of the game
+	 * @param playerID
+	 *            the playerID of the player
+	 * @return true if the player leads; false otherwise
+	 */
+	private static boolean isLeading(BigTwoEngine engine, int playerID) {
+		ArrayList<Hand> handsOnTable = engine.getHandsOnTable();
+		return handsOnTable.isEmpty() || handsOnTable.get(handsOnTable.size() - 1)
+				.getPlayer() == engine.getPlayerList().get(playerID);
+	}
+
+	/**
+	 * Returns a legal move of the specified player. A leading player plays its
+	 * lowest card (which is the 3 of Diamonds in the first move); otherwise the
+	 * player plays the lowest single, pair or triple beating the last hand on
+	 * the table, or passes.
+	 *
+	 * @param engine
+	 *            the state of the game
+	 * @param playerID
+	 *            the playerID of the player
+	 * @return the indices of the cards to play, or null for a pass
+	 */
+	static int[] chooseMove(BigTwoEngine engine, int playerID) {
+		if (isLeading(engine, playerID)) {
+			return new int[] { 0 };
+		}
+		ArrayList<Hand> handsOnTable = engine.getHandsOnTable();
+		Hand lastHand = handsOnTable.get(handsOnTable.size() - 1);
+		CardList cards = engine.getPlayerList().get(playerID).getCardsInHand();
+		int size = lastHand.size();
+		if (size > 3) {
+			return null;
+		}
+		// the cards in hand are sorted, so cards of the same rank are adjacent
+		for (int i = 0; i + size <= cards.size(); i++) {
+			long selected = CardSet.EMPTY;
+			for (int j = i; j < i + size; j++) {
+				selected |= CardSet.bit(cards.getCard(j));
+			}
+			if (engine.isLegalMove(playerID, selected)) {
+				int[] cardIdx = new int[size];
+				for (int j = 0; j < size; j++) {
+					cardIdx[j] = i + j;
+				}
+				return cardIdx;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * main() method for running a load test.
+	 *
+	 * @param args
+	 *            the options of the load test (see printUsage())
+	 */
+	public static void main(String[] args) throws Exception {
+		String host = "127.0.0.1";
+		int port = BigTwoServer.DEFAULT_PORT;
+		int numOfClients = DEFAULT_NUM_OF_CLIENTS;
+		int duration = DEFAULT_DURATION;
+		int rampUp = 10;
+		int thinkTime = DEFAULT_THINK_TIME;
+		double chatRate = 0.05;
+		double churnRate = 0.1;
+		int reportInterval = 5;
+		ThreadModel threadModel = ThreadModel.isVirtualThreadSupported()
+				? ThreadModel.VIRTUAL : ThreadModel.PLATFORM;
+		ThreadModel serverThreadModel = null;
+		String jmx = null;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--host":
+					host = args[++i];
+					break;
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--clients":
+					numOfClients = Integer.parseInt(args[++i]);
+					break;
+				case "--duration":
+					duration = Integer.parseInt(args[++i]);
+					break;
+				case "--ramp-up":
+					rampUp = Integer.parseInt(args[++i]);
+					break;
+				case "--think-time":
+					thinkTime = Integer.parseInt(args[++i]);
+					break;
+				case "--chat-rate":
+					chatRate = Double.parseDouble(args[++i]);
+					break;
+				case "--churn-rate":
+					churnRate = Double.parseDouble(args[++i]);
+					break;
+				case "--report-interval":
+					reportInterval = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threadModel = ThreadModel.valueOf(args[++i].toUpperCase());
+					break;
+				case "--embedded":
+					serverThreadModel = ThreadModel.valueOf(args[++i].toUpperCase());
+					break;
+				case "--jmx":
+					jmx = args[++i];
+					break;
+				case "--help":
+					printUsage();
+					return;
+				default:
+					throw new IllegalArgumentException("unknown option " + args[i]);
+				}
+			}
+			if (numOfClients <= 0 || duration <= 0 || rampUp < 0 || thinkTime < 0 || reportInterval < 0) {
+				throw new IllegalArgumentException("numbers must be positive");
+			}
+			if (threadModel == ThreadModel.SELECTOR) {
+				throw new IllegalArgumentException("the bots need PLATFORM or VIRTUAL threads");
+			}
+		} catch (RuntimeException ex) {
+			System.err.println("Invalid arguments: " + ((ex instanceof ArrayIndexOutOfBoundsException)
+					? "missing value of the last option" : ex.getMessage()));
+			printUsage();
+			System.exit(2);
+		}
+
+		BigTwoLoadGenerator generator = new BigTwoLoadGenerator(host, port,
+				numOfClients, thinkTime, chatRate, churnRate);
+		if (serverThreadModel != null) {
+			// runs a headless server in this JVM
+			System.setProperty("java.awt.headless", "true");
+			BigTwoServer server = new BigTwoServer();
+			server.setThreadModel(serverThreadModel);
+			server.getLog().setLevel(ServerLog.Level.WARN);
+			server.getLog().addListener(ServerLog.standardOutput());
+			int serverPort = port;
+			Thread thread = new Thread(() -> server.start(serverPort), "BigTwoServer");
+			thread.setDaemon(true);
+			thread.start();
+			while (!server.isServerUp()) {
+				Thread.sleep(10);
+			}
+			generator.setServerConnection(ManagementFactory.getPlatformMBeanServer());
+		} else if (jmx != null) {
+			generator.setServerConnection(JMXConnectorFactory.connect(new JMXServiceURL(
+					"service:jmx:rmi:///jndi/rmi://" + jmx + "/jmxrmi")).getMBeanServerConnection());
+		}
+		generator.run(threadModel, rampUp * 1000L, duration * 1000L, reportInterval);
+		System.exit(0);
+	} // main
+
+	/**
+	 * Prints the options of the load generator to the standard error.
+	 */
+	private static void printUsage() {
+		System.err.println("Usage: java BigTwoLoadGenerator [options]");
+		System.err.println("  --host <host>            the host of the server (default: 127.0.0.1)");
+		System.err.println("  --port <port>            the port of the server (default: " + BigTwoServer.DEFAULT_PORT + ")");
+		System.err.println("  --clients <n>            the number of bots (default: " + DEFAULT_NUM_OF_CLIENTS + ")");
+		System.err.println("  --duration <s>           the duration of the run (default: " + DEFAULT_DURATION + ")");
+		System.err.println("  --ramp-up <s>            the time over which the bots connect (default: 10)");
+		System.err.println("  --think-time <ms>        the mean time before a move (default: " + DEFAULT_THINK_TIME + ")");
+		System.err.println("  --chat-rate <p>          the probability of a chat message per turn (default: 0.05)");
+		System.err.println("  --churn-rate <p>         the probability of reconnecting after a game (default: 0.1)");
+		System.err.println("  --report-interval <s>    the time between two reports, 0 for none (default: 5)");
+		System.err.println("  --threads <model>        PLATFORM or VIRTUAL threads for the bots (default: VIRTUAL if supported)");
+		System.err.println("  --embedded <model>       runs a server in-process with SELECTOR, PLATFORM or VIRTUAL threads");
+		System.err.println("  --jmx <host:port>        reads the resource use of a remote server from its JMX agent");
+	}
+}
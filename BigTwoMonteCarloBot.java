@@ -0,0 +1,233 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The BigTwoMonteCarloBot class models a Big Two bot searching for its move with determinized Monte Carlo
+ * sampling. Each sample deals the hidden cards at random to the opponents (keeping the number of cards
+ * they hold), plays one of the legal moves chosen with the UCB1 rule, and finishes the game with a fast
+ * playout. The move tried the most is played.
+ * <p>
+ * A decision is bounded in time by its deadline and in work by the maximum number of samples, and it is
+ * split into tasks run in parallel on a worker pool shared by all the bots of the JVM (a decision which is
+ * not split is run by the calling thread instead, so it never waits for the pool). The samples reuse
+ * the scratch state of their worker thread, so a decision only allocates its statistics. If no sample
+ * could be run by the deadline (e.g. because the pool is saturated), the weakest legal hand is played
+ * (see BigTwoGreedyBot). As the samples are drawn with the random generator of each worker thread, and
+ * their number depends on the time left, the move chosen in a position may differ from run to run
+ * @author karanvs
+ *
+ */
+public class BigTwoMonteCarloBot implements BigTwoBot {
+
+	/**
+	 * The default maximum number of samples of a decision
+	 */
+	public static final int DEFAULT_MAX_SAMPLES = 20000;
+	/**
+	 * The default number of tasks a decision is split into
+	 */
+	public static final int DEFAULT_PARALLELISM = 2;
+
+	// exploration constant of the UCB1 rule
+	private static final double EXPLORATION = 0.7;
+	// reward of a lost game for each card played by the bot (a won game is worth 1)
+	private static final double CARD_REWARD = 0.02;
+
+	// the worker pool shared by the bots, created on first use
+	private static ForkJoinPool sharedPool = null;
+	// the scratch state of each worker thread
+	private static final ThreadLocal<Sampler> SAMPLERS = ThreadLocal.withInitial(Sampler::new);
+
+	private final ForkJoinPool pool;
+	private final int parallelism;
+	private final int maxSamples;
+
+	/**
+	 * a constructor for creating a bot running on the shared worker pool with the default limits
+	 */
+	public BigTwoMonteCarloBot() {
+		this(getSharedPool(), DEFAULT_PARALLELISM, DEFAULT_MAX_SAMPLES);
+	}
+
+	/**
+	 * a constructor for creating a bot with the specified worker pool and limits
+	 * @param pool The worker pool running the samples
+	 * @param parallelism The number of tasks a decision is split into
+	 * @param maxSamples The maximum number of samples of a decision
+	 */
+	public BigTwoMonteCarloBot(ForkJoinPool pool, int parallelism, int maxSamples) {
+		if (parallelism <= 0 || maxSamples <= 0) {
+			throw new IllegalArgumentException("Invalid limits of the search");
+		}
+		this.pool = pool;
+		this.parallelism = parallelism;
+		this.maxSamples = maxSamples;
+	}
+
+	/**
+	 * a method for retrieving the worker pool shared by the bots, which has a daemon thread per processor
+	 * @return The shared worker pool
+	 */
+	public static synchronized ForkJoinPool getSharedPool() {
+		if (sharedPool == null) {
+			AtomicInteger count = new AtomicInteger();
+			sharedPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("BigTwoBot-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}, null, false);
+		}
+		return sharedPool;
+	}
+
+	/**
+	 * a method for choosing the move of the current player of the specified position by sampling
+	 * @param position The position of the game
+	 * @param deadline The time (as given by System.nanoTime()) by which the move must be chosen
+	 * @return The set of cards to play (see CardSet), or CardSet.EMPTY to pass
+	 */
+	public long chooseMove(BigTwoPosition position, long deadline) {
+		Sampler sampler = SAMPLERS.get();
+		int numOfMoves = position.getLegalMoves(sampler.generator, sampler.moves);
+		if (numOfMoves <= 1) {
+			return (numOfMoves == 0) ? CardSet.EMPTY : sampler.moves[0];
+		}
+		long[] moves = Arrays.copyOf(sampler.moves, numOfMoves);
+		if (parallelism == 1) {
+			// samples in the calling thread, which may itself be a worker of the pool
+			Statistics statistics = new Statistics(numOfMoves);
+			sampler.sample(position, moves, statistics, maxSamples, deadline);
+			return chooseMostSampled(moves, statistics.visits);
+		}
+
+		// splits the samples among tasks run in parallel, each with its own statistics
+		int samplesPerTask = (maxSamples + parallelism - 1) / parallelism;
+		Statistics[] statistics = new Statistics[parallelism];
+		ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[parallelism];
+		for (int i = 0; i < parallelism; i++) {
+			Statistics taskStatistics = new Statistics(numOfMoves);
+			statistics[i] = taskStatistics;
+			tasks[i] = pool.submit(() -> SAMPLERS.get().sample(position, moves, taskStatistics, samplesPerTask, deadline));
+		}
+		int[] visits = new int[numOfMoves];
+		for (int i = 0; i < parallelism; i++) {
+			tasks[i].join();
+			for (int j = 0; j < numOfMoves; j++) {
+				visits[j] += statistics[i].visits[j];
+			}
+		}
+
+		return chooseMostSampled(moves, visits);
+	}
+
+	// returns the move sampled the most, or the weakest hand if no move has been sampled
+	private static long chooseMostSampled(long[] moves, int[] visits) {
+		int best = -1;
+		for (int j = 0; j < moves.length; j++) {
+			if (visits[j] > 0 && (best < 0 || visits[j] > visits[best])) {
+				best = j;
+			}
+		}
+		return (best < 0) ? BigTwoGreedyBot.weakestMove(moves, moves.length) : moves[best];
+	}
+
+	/**
+	 * This class is used to hold the statistics of the moves sampled by a task
+	 */
+	private static final class Statistics {
+		private final int[] visits;
+		private final double[] rewards;
+		private int numOfSamples = 0;
+
+		private Statistics(int numOfMoves) {
+			visits = new int[numOfMoves];
+			rewards = new double[numOfMoves];
+		}
+
+		// returns the move to be sampled next with the UCB1 rule (each move is sampled once first)
+		private int select() {
+			int best = 0;
+			double bestValue = Double.NEGATIVE_INFINITY;
+			double logSamples = Math.log(numOfSamples);
+			for (int i = 0; i < visits.length; i++) {
+				if (visits[i] == 0) {
+					return i;
+				}
+				double value = rewards[i] / visits[i] + EXPLORATION * Math.sqrt(logSamples / visits[i]);
+				if (value > bestValue) {
+					best = i;
+					bestValue = value;
+				}
+			}
+			return best;
+		}
+	}
+
+	/**
+	 * This class is used to hold the scratch state of a thread sampling games, which is reused by all the
+	 * decisions run on the thread
+	 */
+	private static final class Sampler {
+		private final BigTwoMoveGenerator generator = new BigTwoMoveGenerator();
+		private final long[] moves = new long[BigTwoMoveGenerator.MAX_NUM_OF_MOVES];
+		private final BigTwoPosition game = new BigTwoPosition();
+		private final int[] hiddenCards = new int[CardSet.NUM_OF_CARDS];
+		private final SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+
+		// samples the moves of the position until the deadline or the maximum number of samples
+		private void sample(BigTwoPosition position, long[] rootMoves, Statistics statistics, int maxSamples, long deadline) {
+			int me = position.getCurrentPlayerIdx();
+			for (int i = 0; i < maxSamples && System.nanoTime() - deadline < 0; i++) {
+				int move = statistics.select();
+				game.setFrom(position);
+				dealHiddenCards(me);
+				game.play(rootMoves[move]);
+				statistics.visits[move]++;
+				statistics.rewards[move] += playOut(me);
+				statistics.numOfSamples++;
+			}
+		}
+
+		// deals the cards hidden from the player at random to the other players
+		private void dealHiddenCards(int me) {
+			int numOfHiddenCards = 0;
+			for (int i = 0; i < BigTwoPosition.NUM_OF_PLAYERS; i++) {
+				if (i != me) {
+					for (long cards = game.getCardsInHand(i); cards != 0; cards &= cards - 1) {
+						hiddenCards[numOfHiddenCards++] = Long.numberOfTrailingZeros(cards);
+					}
+				}
+			}
+			for (int i = 0; i < BigTwoPosition.NUM_OF_PLAYERS; i++) {
+				if (i == me) {
+					continue;
+				}
+				long cards = CardSet.EMPTY;
+				for (int n = game.getNumOfCards(i); n > 0; n--) {
+					// draws one of the hidden cards left
+					int j = random.nextInt(numOfHiddenCards);
+					cards |= CardSet.bit(hiddenCards[j]);
+					hiddenCards[j] = hiddenCards[--numOfHiddenCards];
+				}
+				game.setCardsInHand(i, cards);
+			}
+		}
+
+		// finishes the game with random moves (half of them the weakest hand), and returns the reward of the player
+		private double playOut(int me) {
+			while (!game.isGameOver()) {
+				int numOfMoves = game.getLegalMoves(generator, moves);
+				long move = random.nextBoolean() ? BigTwoGreedyBot.weakestMove(moves, numOfMoves)
+						: moves[random.nextInt(numOfMoves)];
+				game.play(move);
+			}
+			return (game.getWinnerIdx() == me) ? 1.0 : CARD_REWARD * (13 - game.getNumOfCards(me));
+		}
+	}
+}
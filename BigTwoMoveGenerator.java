@@ -0,0 +1,284 @@
+/**
+ * The BigTwoMoveGenerator class lists the legal moves of a player from the set of cards held (see CardSet).
+ * Instead of trying every subset of the cards, it builds each category of hands from the cards of each rank
+ * (or suit), and skips whole ranks, suits and categories which cannot beat the last hand on the table.
+ * Moves are written as card sets into an array supplied by the caller, and a generator keeps its scratch state
+ * between calls, so generating moves does not allocate. A generator must not be shared between threads
+ * @author karanvs
+ *
+ */
+public class BigTwoMoveGenerator {
+
+	/**
+	 * The maximum number of moves of a player holding 13 cards (a pass, and every subset of 1, 2, 3 or 5 cards)
+	 * An array of this length can hold the moves of any player
+	 */
+	public static final int MAX_NUM_OF_MOVES = 1 + 13 + 78 + 286 + 1287;
+
+	// mask of the 13 rank bits of a suit in a card set
+	private static final int RANKS = 0x1FFF;
+	// multiplying a rank mask by this copies it into the bits of all four suits
+	private static final long ALL_SUITS = 1L | (1L << 13) | (1L << 26) | (1L << 39);
+	// the three of diamonds, which must be played in the first hand of a game
+	private static final long THREE_OF_DIAMONDS = CardSet.bit(CardSet.ordinal(0, 2));
+	// rank masks of the straights, from 3-4-5-6-7 up to J-Q-K-A-2 (as in BigTwoHandClassifier)
+	private static final int[] STRAIGHT_RANKS = new int[9];
+	// ranks in increasing order of score, from 3 up to 2
+	private static final int[] RANKS_BY_SCORE = new int[13];
+
+	static {
+		for (int score = 1; score <= 13; score++) {
+			RANKS_BY_SCORE[score - 1] = rankOfScore(score);
+		}
+		for (int lowScore = 1; lowScore <= 9; lowScore++) {
+			for (int score = lowScore; score < lowScore + 5; score++) {
+				STRAIGHT_RANKS[lowScore - 1] |= 1 << rankOfScore(score);
+			}
+		}
+	}
+
+	// the moves being generated, and the number of moves so far
+	private long[] moves;
+	private int numOfMoves;
+	// the strength key of the last hand on the table, or BigTwoHandClassifier.INVALID if the player leads
+	private int strengthToBeat;
+	// true if the moves must include the three of diamonds
+	private boolean firstMove;
+	// the positions of the cards of a suit, used for building the flushes
+	private final int[] positions = new int[13];
+
+	// inverse of BigTwoCard.getRankScore
+	private static int rankOfScore(int score) {
+		return (score + 1) % 13;
+	}
+
+	// the cards of the specified rank in a card set
+	private static long rankCards(long cards, int rank) {
+		return cards & (ALL_SUITS << rank);
+	}
+
+	// rank mask of the cards of the specified suit in a card set
+	private static int suitRanks(long cards, int suit) {
+		return (int) (cards >>> (13 * suit)) & RANKS;
+	}
+
+	// the highest strength key a hand of the specified size and category can have with a top card of the specified rank
+	private static int maxStrength(int size, int category, int rank) {
+		return (size << 9) | (category << 6) | (BigTwoCard.getRankScore(rank) * 4 + 3);
+	}
+
+	// adds the hand of the specified category if it is a legal move
+	private void add(long cards, int category) {
+		if (firstMove && (cards & THREE_OF_DIAMONDS) == 0) {
+			return;
+		}
+		if (strengthToBeat == BigTwoHandClassifier.INVALID
+				|| BigTwoHandClassifier.getStrength(cards, category) > strengthToBeat) {
+			moves[numOfMoves++] = cards;
+		}
+	}
+
+	// returns true if a hand with the specified highest strength key can beat the last hand on the table
+	private boolean canBeat(int maxStrength) {
+		return maxStrength > strengthToBeat;
+	}
+
+	/**
+	 * a method for generating the legal moves of a player holding the specified cards
+	 * @param cardsInHand The cards held by the player
+	 * @param lastHand The last hand on the table, or null if the player leads (at the start of a game, or when
+	 *                 the last hand on the table is the player's own)
+	 * @param firstMove true if this is the first move of a game, which must include the three of diamonds
+	 * @param moves The array receiving the moves as card sets (see CardSet), with CardSet.EMPTY for a pass;
+	 *              an array of MAX_NUM_OF_MOVES elements is always large enough
+	 * @return The number of moves written to the array
+	 */
+	public int generate(CardList cardsInHand, Hand lastHand, boolean firstMove, long[] moves) {
+		int strengthToBeat = (lastHand == null) ? BigTwoHandClassifier.INVALID : lastHand.getStrength();
+		return generate(cardsInHand.getCardMask(), strengthToBeat, firstMove, moves);
+	}
+
+	/**
+	 * a method for generating the legal moves of a player holding the specified cards
+	 * When a hand has to be beaten, the moves are a pass and the hands of the same size with a greater
+	 * strength key; otherwise (the player leads) they are all the valid hands and there is no pass
+	 * @param cards The set of cards held by the player (see CardSet)
+	 * @param strengthToBeat The strength key of the last hand on the table (see BigTwoHandClassifier), or
+	 *                       BigTwoHandClassifier.INVALID if the player leads
+	 * @param firstMove true if this is the first move of a game, which must include the three of diamonds
+	 * @param moves The array receiving the moves as card sets (see CardSet), with CardSet.EMPTY for a pass;
+	 *              an array of MAX_NUM_OF_MOVES elements is always large enough
+	 * @return The number of moves written to the array
+	 */
+	public int generate(long cards, int strengthToBeat, boolean firstMove, long[] moves) {
+		this.moves = moves;
+		this.numOfMoves = 0;
+		this.strengthToBeat = strengthToBeat;
+		this.firstMove = firstMove;
+		boolean leading = (strengthToBeat == BigTwoHandClassifier.INVALID);
+		int size = leading ? 0 : BigTwoHandClassifier.getSize(strengthToBeat);
+		int category = leading ? BigTwoHandClassifier.STRAIGHT : BigTwoHandClassifier.getCategory(strengthToBeat);
+
+		if (!leading) {
+			moves[numOfMoves++] = CardSet.EMPTY;
+		}
+		if (leading || size == 1) {
+			addSetsOfRank(cards, 1, BigTwoHandClassifier.SINGLE);
+		}
+		if (leading || size == 2) {
+			addSetsOfRank(cards, 2, BigTwoHandClassifier.PAIR);
+		}
+		if (leading || size == 3) {
+			addSetsOfRank(cards, 3, BigTwoHandClassifier.TRIPLE);
+		}
+		if (leading || size == 5) {
+			// a category lower than the one of the last hand cannot beat it
+			addStraights(cards, category > BigTwoHandClassifier.STRAIGHT);
+			if (category <= BigTwoHandClassifier.FLUSH) {
+				addFlushes(cards);
+			}
+			if (category <= BigTwoHandClassifier.FULL_HOUSE) {
+				addFullHouses(cards);
+			}
+			if (category <= BigTwoHandClassifier.QUAD) {
+				addQuads(cards);
+			}
+		}
+		int generated = numOfMoves;
+		this.moves = null;
+		return generated;
+	}
+
+	// adds the singles, pairs or triples (sets of the specified number of cards of the same rank)
+	private void addSetsOfRank(long cards, int numOfCards, int category) {
+		for (int rank = 0; rank < 13; rank++) {
+			long ofRank = rankCards(cards, rank);
+			if (Long.bitCount(ofRank) < numOfCards || !canBeat(maxStrength(numOfCards, category, rank))) {
+				continue;
+			}
+			// every subset of the (at most four) cards of the rank with the right number of cards
+			for (long subset = ofRank; subset != 0; subset = (subset - 1) & ofRank) {
+				if (Long.bitCount(subset) == numOfCards) {
+					add(subset, category);
+				}
+			}
+		}
+	}
+
+	// adds the straights and the straight flushes (only the straight flushes if flushOnly is true)
+	private void addStraights(long cards, boolean flushOnly) {
+		int ranks = suitRanks(cards, 0) | suitRanks(cards, 1) | suitRanks(cards, 2) | suitRanks(cards, 3);
+		for (int i = 0; i < STRAIGHT_RANKS.length; i++) {
+			int straightRanks = STRAIGHT_RANKS[i];
+			int topRank = RANKS_BY_SCORE[i + 4];
+			if ((ranks & straightRanks) != straightRanks || !canBeat(
+					maxStrength(5, BigTwoHandClassifier.STRAIGHT_FLUSH, topRank))) {
+				continue;
+			}
+			if (flushOnly) {
+				for (int suit = 0; suit < 4; suit++) {
+					if ((suitRanks(cards, suit) & straightRanks) == straightRanks) {
+						add((long) straightRanks << (13 * suit), BigTwoHandClassifier.STRAIGHT_FLUSH);
+					}
+				}
+			} else {
+				addStraights(cards, i, 0, CardSet.EMPTY);
+			}
+		}
+	}
+
+	// adds the straights built by choosing a card of each of the remaining ranks of the straight
+	private void addStraights(long cards, int straight, int numOfRanks, long chosen) {
+		if (numOfRanks == 5) {
+			boolean flush = false;
+			for (int suit = 0; suit < 4; suit++) {
+				flush |= (suitRanks(chosen, suit) == STRAIGHT_RANKS[straight]);
+			}
+			add(chosen, flush ? BigTwoHandClassifier.STRAIGHT_FLUSH : BigTwoHandClassifier.STRAIGHT);
+			return;
+		}
+		long ofRank = rankCards(cards, RANKS_BY_SCORE[straight + numOfRanks]);
+		for (long remaining = ofRank; remaining != 0; remaining &= remaining - 1) {
+			addStraights(cards, straight, numOfRanks + 1, chosen | Long.lowestOneBit(remaining));
+		}
+	}
+
+	// adds the flushes which are not straight flushes (those are added with the straights)
+	private void addFlushes(long cards) {
+		for (int suit = 0; suit < 4; suit++) {
+			int ofSuit = suitRanks(cards, suit);
+			int numOfCards = Integer.bitCount(ofSuit);
+			// flushes are compared by suit first, then by the score of their top cards
+			int maxOrder = suit * 16 + 13;
+			if (numOfCards < 5 || !canBeat((5 << 9) | (BigTwoHandClassifier.FLUSH << 6) | maxOrder)) {
+				continue;
+			}
+			// every subset of 5 of the cards of the suit, as subsets of their positions (Gosper's hack)
+			for (int i = 0, remaining = ofSuit; remaining != 0; i++, remaining &= remaining - 1) {
+				positions[i] = Integer.numberOfTrailingZeros(remaining);
+			}
+			for (int subset = 0x1F; subset < (1 << numOfCards); ) {
+				int flushRanks = 0;
+				for (int i = 0, remaining = subset; remaining != 0; i++, remaining &= remaining - 1) {
+					flushRanks |= 1 << positions[Integer.numberOfTrailingZeros(remaining)];
+				}
+				if (!isStraight(flushRanks)) {
+					add((long) flushRanks << (13 * suit), BigTwoHandClassifier.FLUSH);
+				}
+				int lowest = subset & -subset;
+				int carried = subset + lowest;
+				subset = carried | (((subset ^ carried) >>> 2) / lowest);
+			}
+		}
+	}
+
+	// adds the full houses (a triple and a pair of another rank)
+	private void addFullHouses(long cards) {
+		for (int tripleRank = 0; tripleRank < 13; tripleRank++) {
+			long triples = rankCards(cards, tripleRank);
+			if (Long.bitCount(triples) < 3
+					|| !canBeat(maxStrength(5, BigTwoHandClassifier.FULL_HOUSE, tripleRank))) {
+				continue;
+			}
+			for (long triple = triples; triple != 0; triple = (triple - 1) & triples) {
+				if (Long.bitCount(triple) != 3) {
+					continue;
+				}
+				for (int pairRank = 0; pairRank < 13; pairRank++) {
+					long pairs = rankCards(cards, pairRank);
+					if (pairRank == tripleRank || Long.bitCount(pairs) < 2) {
+						continue;
+					}
+					for (long pair = pairs; pair != 0; pair = (pair - 1) & pairs) {
+						if (Long.bitCount(pair) == 2) {
+							add(triple | pair, BigTwoHandClassifier.FULL_HOUSE);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// adds the quads (the four cards of a rank and any other card)
+	private void addQuads(long cards) {
+		for (int rank = 0; rank < 13; rank++) {
+			long quad = rankCards(cards, rank);
+			if (Long.bitCount(quad) < 4 || !canBeat(maxStrength(5, BigTwoHandClassifier.QUAD, rank))) {
+				continue;
+			}
+			for (long others = cards & ~quad; others != 0; others &= others - 1) {
+				add(quad | Long.lowestOneBit(others), BigTwoHandClassifier.QUAD);
+			}
+		}
+	}
+
+	// returns true if the rank mask is the one of a straight
+	private static boolean isStraight(int ranks) {
+		for (int straightRanks : STRAIGHT_RANKS) {
+			if (ranks == straightRanks) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,177 @@
+import java.util.ArrayList;
+
+/**
+ * The BigTwoPosition class models the state of a Big Two game with card sets (see CardSet) only:
+ * the cards held by each player, the strength key of the last hand on the table and whose turn it is.
+ * A position can be copied and played forward without allocating, so it is used by the bots
+ * (see BigTwoBot) to search and simulate games, whereas BigTwoEngine runs the actual game
+ * @author karanvs
+ *
+ */
+public class BigTwoPosition {
+
+	/**
+	 * The number of players in a game
+	 */
+	public static final int NUM_OF_PLAYERS = 4;
+
+	// the cards held by each player
+	private final long[] hands = new long[NUM_OF_PLAYERS];
+	// the cards played so far
+	private long cardsPlayed = CardSet.EMPTY;
+	// the index of the player whose turn it is, or -1 if no game is in progress
+	private int currentPlayerIdx = -1;
+	// the index of the player who played the last hand on the table, or -1 if there is none
+	private int lastPlayerIdx = -1;
+	// the strength key of the last hand on the table, or BigTwoHandClassifier.INVALID if there is none
+	private int lastStrength = BigTwoHandClassifier.INVALID;
+
+	/**
+	 * a method for setting this position to the current state of the specified game
+	 * @param engine The game whose state is copied
+	 */
+	public void setFrom(BigTwoEngine engine) {
+		ArrayList<CardGamePlayer> playerList = engine.getPlayerList();
+		ArrayList<Hand> handsOnTable = engine.getHandsOnTable();
+		cardsPlayed = CardSet.EMPTY;
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			hands[i] = playerList.get(i).getCardsInHand().getCardMask();
+		}
+		for (int i = 0; i < handsOnTable.size(); i++) {
+			cardsPlayed |= handsOnTable.get(i).getCardMask();
+		}
+		currentPlayerIdx = engine.getCurrentPlayerIdx();
+		if (handsOnTable.isEmpty()) {
+			lastPlayerIdx = -1;
+			lastStrength = BigTwoHandClassifier.INVALID;
+		} else {
+			Hand lastHand = handsOnTable.get(handsOnTable.size() - 1);
+			lastPlayerIdx = playerList.indexOf(lastHand.getPlayer());
+			lastStrength = lastHand.getStrength();
+		}
+	}
+
+	/**
+	 * a method for setting this position to a copy of the specified position
+	 * @param position The position to be copied
+	 */
+	public void setFrom(BigTwoPosition position) {
+		System.arraycopy(position.hands, 0, hands, 0, NUM_OF_PLAYERS);
+		cardsPlayed = position.cardsPlayed;
+		currentPlayerIdx = position.currentPlayerIdx;
+		lastPlayerIdx = position.lastPlayerIdx;
+		lastStrength = position.lastStrength;
+	}
+
+	/**
+	 * a method for retrieving the cards held by a player
+	 * @param playerIdx The index of the player
+	 * @return The set of cards held by the player (see CardSet)
+	 */
+	public long getCardsInHand(int playerIdx) {
+		return hands[playerIdx];
+	}
+
+	/**
+	 * a method for replacing the cards held by a player (e.g. to deal the hidden cards of the opponents)
+	 * @param playerIdx The index of the player
+	 * @param cards The set of cards held by the player (see CardSet)
+	 */
+	public void setCardsInHand(int playerIdx, long cards) {
+		hands[playerIdx] = cards;
+	}
+
+	/**
+	 * a method for retrieving the number of cards held by a player
+	 * @param playerIdx The index of the player
+	 * @return The number of cards held by the player
+	 */
+	public int getNumOfCards(int playerIdx) {
+		return Long.bitCount(hands[playerIdx]);
+	}
+
+	/**
+	 * a method for retrieving the cards played so far
+	 * @return The set of cards played so far (see CardSet)
+	 */
+	public long getCardsPlayed() {
+		return cardsPlayed;
+	}
+
+	/**
+	 * a method for retrieving the index of the player whose turn it is
+	 * @return The index of the current player, or -1 if the game has ended
+	 */
+	public int getCurrentPlayerIdx() {
+		return currentPlayerIdx;
+	}
+
+	/**
+	 * a method for retrieving the strength key of the hand the current player has to beat
+	 * @return The strength key of the last hand on the table, or BigTwoHandClassifier.INVALID if the current
+	 *         player leads (at the start of a game, or when all other players have passed)
+	 */
+	public int getStrengthToBeat() {
+		return (lastPlayerIdx < 0 || lastPlayerIdx == currentPlayerIdx) ? BigTwoHandClassifier.INVALID : lastStrength;
+	}
+
+	/**
+	 * a method for checking if the next move is the first move of the game, which must include the three of diamonds
+	 * @return true if no card has been played yet; false otherwise
+	 */
+	public boolean isFirstMove() {
+		return cardsPlayed == CardSet.EMPTY;
+	}
+
+	/**
+	 * a method for generating the legal moves of the current player (see BigTwoMoveGenerator)
+	 * @param generator The generator used
+	 * @param moves The array receiving the moves as card sets, with CardSet.EMPTY for a pass
+	 * @return The number of moves written to the array
+	 */
+	public int getLegalMoves(BigTwoMoveGenerator generator, long[] moves) {
+		if (currentPlayerIdx < 0) {
+			return 0;
+		}
+		return generator.generate(hands[currentPlayerIdx], getStrengthToBeat(), isFirstMove(), moves);
+	}
+
+	/**
+	 * a method for playing a legal move of the current player (the move is not checked)
+	 * @param cards The set of cards played (see CardSet), or CardSet.EMPTY to pass
+	 */
+	public void play(long cards) {
+		if (cards != CardSet.EMPTY) {
+			hands[currentPlayerIdx] &= ~cards;
+			cardsPlayed |= cards;
+			lastPlayerIdx = currentPlayerIdx;
+			lastStrength = BigTwoHandClassifier.getStrength(cards);
+			if (hands[currentPlayerIdx] == CardSet.EMPTY) {
+				currentPlayerIdx = -1;
+				return;
+			}
+		}
+		currentPlayerIdx = (currentPlayerIdx + 1) % NUM_OF_PLAYERS;
+	}
+
+	/**
+	 * a method for checking for the end of the game
+	 * @return true if a player has played all their cards; false otherwise
+	 */
+	public boolean isGameOver() {
+		return getWinnerIdx() >= 0;
+	}
+
+	/**
+	 * a method for retrieving the winner of the game
+	 * @return The index of the player who has played all their cards, or -1 if the game has not ended
+	 */
+	public int getWinnerIdx() {
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			if (hands[i] == CardSet.EMPTY && (cardsPlayed != CardSet.EMPTY)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
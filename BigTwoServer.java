@@ -4,11 +4,56 @@
  *
  */
 public class BigTwoServer extends CardGameServer {
+	/**
+	 * The default maximum number of game rooms hosted by a Big Two server.
+	 */
+	public static final int DEFAULT_MAX_NUM_OF_ROOMS = 1000;
+	/**
+	 * The default port of a Big Two server.
+	 */
+	public static final int DEFAULT_PORT = 2396;
+	/**
+	 * The default time (in seconds) for which a shutting down server waits for the games in progress.
+	 */
+	public static final int DEFAULT_DRAIN_TIMEOUT = 60;
+	/**
+	 * The default time (in milliseconds) for which a bot searches for its move.
+	 */
+	public static final int DEFAULT_BOT_TIME = 10;
+	
+	// the bot playing in the slots taken by bots (see setBotFillDelay())
+	private volatile BigTwoBot bot = new BigTwoMonteCarloBot();
+	// the time (in milliseconds) for which a bot searches for its move
+	private volatile long botTime = DEFAULT_BOT_TIME;
+	
 	/**
 	 * Creates and returns an instance of the BigTwoServer class.
 	 */
 	public BigTwoServer() {
-		super("Big Two Server", 4);
+		this(DEFAULT_MAX_NUM_OF_ROOMS);
+	}
+	
+	/**
+	 * Creates and returns an instance of the BigTwoServer class.
+	 * @param maxNumOfRooms the maximum number of game rooms hosted by the server
+	 */
+	public BigTwoServer(int maxNumOfRooms) {
+		super("Big Two Server", 4, maxNumOfRooms);
+	}
+	
+	/**
+	 * Sets the bot playing in the slots taken by bots, and the time for which it searches for
+	 * each move. The moves of all the bots are chosen in parallel on the worker pool shared
+	 * by the bots (see BigTwoMonteCarloBot.getSharedPool()).
+	 * @param bot the bot playing the moves
+	 * @param botTime the time (in milliseconds) for which the bot searches for a move
+	 */
+	public void setBot(BigTwoBot bot, long botTime) {
+		if (bot == null || botTime < 0) {
+			throw new IllegalArgumentException("Invalid bot");
+		}
+		this.bot = bot;
+		this.botTime = botTime;
 	}
 	
 	/**
@@ -19,19 +64,323 @@ public class BigTwoServer extends CardGameServer {
 		return new BigTwoDeck(); 
 	}
 	
+	/**
+	 * Creates and returns a Big Two game room, which holds the authoritative state of its game.
+	 * @param roomID the id of the room
+	 * @return an instance of the BigTwoRoom class
+	 */
+	public GameRoom createRoom(int roomID) {
+		return new BigTwoRoom(this, roomID);
+	}
+	
+	/**
+	 * This inner class is used to model a Big Two game room, which validates the moves of its game
+	 * with the Big Two rules
+	 * @author karanvs
+	 *
+	 */
+	private static class BigTwoRoom extends GameRoom {
+		// the server hosting the room
+		private final BigTwoServer server;
+		// the authoritative state of the game being played
+		private BigTwoEngine engine = new BigTwoEngine();
+		// the number of moves played (and games started) in the room, which tells whether
+		// the move chosen by a bot is still for the current turn
+		private int numOfTurns = 0;
+		
+		/**
+		 * Creates and returns an instance of the BigTwoRoom class.
+		 * @param server the server hosting the room
+		 * @param roomID the id of the room
+		 */
+		public BigTwoRoom(BigTwoServer server, int roomID) {
+			super(server, roomID, 4);
+			this.server = server;
+		}
+		
+		/**
+		 * Starts the authoritative game of this room with the deck broadcast to the clients.
+		 * @param deck the shuffled deck of the new game
+		 */
+		public void gameStarted(Deck deck) {
+			engine.start(deck);
+			numOfTurns++;
+			scheduleBotMove();
+		}
+		
+		/**
+		 * Checks the move with the Big Two rules, and plays it in this room if it is legal.
+		 * @param playerID the playerID of the player who makes the move
+		 * @param cardIdx the list of the indices of the cards selected by the player, or null for a pass
+		 * @return true if the move is legal; false otherwise
+		 */
+		public boolean checkMove(int playerID, int[] cardIdx) {
+			if (!engine.playMove(playerID, cardIdx)) {
+				return false;
+			}
+			numOfTurns++;
+			if (engine.endOfGame()) {
+				gameFinished();
+			} else {
+				scheduleBotMove();
+			}
+			return true;
+		}
+		
+		/**
+		 * Resets the game of this room after a player has left, so its moves (including those
+		 * being chosen by the bots) are rejected until a new game is started.
+		 */
+		protected void gameAborted() {
+			engine = new BigTwoEngine();
+			numOfTurns++;
+		}
+		
+		/**
+		 * Returns the three of diamonds, so the clients know who starts the game.
+		 * @return the set of public cards (see CardSet)
+		 */
+		public long getPublicCards() {
+			return CardSet.bit(CardSet.ordinal(0, 2));
+		}
+		
+		/**
+		 * Returns the set of cards selected by the player as a Long (see CardSet), which the other
+		 * clients can play even though the cards of the player are hidden to them.
+		 * @param playerID the playerID of the player who makes the move
+		 * @param cardIdx the list of the indices of the cards selected by the player, or null for a pass
+		 * @return the set of cards selected, or null for a pass
+		 */
+		public Object getMoveData(int playerID, int[] cardIdx) {
+			if (cardIdx == null || playerID < 0 || playerID >= 4) {
+				return null;
+			}
+			CardList cardsInHand = engine.getPlayerList().get(playerID).getCardsInHand();
+			long cards = CardSet.EMPTY;
+			for (int idx : cardIdx) {
+				if (idx >= 0 && idx < cardsInHand.size()) {
+					cards |= CardSet.bit(cardsInHand.getCard(idx));
+				}
+			}
+			return (cards == CardSet.EMPTY) ? null : Long.valueOf(cards);
+		}
+		
+		/**
+		 * Returns true: the moves of the bots are chosen by the bot of the server.
+		 * @return true
+		 */
+		protected boolean canSeatBots() {
+			return true;
+		}
+		
+		/**
+		 * Lets the bot which has taken over the slot of a player play if it is its turn.
+		 * @param playerID the playerID of the slot taken by the bot
+		 */
+		protected void botSeated(int playerID) {
+			scheduleBotMove();
+		}
+		
+		/**
+		 * Lets the bot of the server choose the move of the current player on the worker pool of
+		 * the bots if the current player is a bot. The move is played once chosen, unless the game
+		 * has moved on in the meantime; if the bot fails to choose a legal move, its first legal
+		 * move is played instead.
+		 */
+		private void scheduleBotMove() {
+			int playerID = engine.getCurrentPlayerIdx();
+			if (!isBot(playerID)) {
+				return;
+			}
+			BigTwoPosition position = new BigTwoPosition();
+			position.setFrom(engine);
+			BigTwoBot bot = server.bot;
+			long deadline = System.nanoTime() + server.botTime * 1000000L;
+			int turn = numOfTurns;
+			BigTwoMonteCarloBot.getSharedPool().execute(() -> {
+				long move;
+				try {
+					move = bot.chooseMove(position, deadline);
+				} catch (RuntimeException ex) {
+					server.log(ServerLog.Level.WARN, "[Room " + getRoomID() + "] The bot of player "
+							+ playerID + " failed to choose a move: " + ex);
+					if (!server.silentMode) ex.printStackTrace();
+					move = -1L;
+				}
+				synchronized (this) {
+					if (turn != numOfTurns || !isBot(playerID)) {
+						// the game has moved on, or a bot no longer plays in the slot
+						return;
+					}
+					CardList cardsInHand = engine.getPlayerList().get(playerID).getCardsInHand();
+					if (move == -1L || !engine.isLegalMove(playerID, move)) {
+						if (move != -1L) {
+							server.log(ServerLog.Level.WARN, "[Room " + getRoomID() + "] The bot of player "
+									+ playerID + " chose an illegal move (card set 0x" + Long.toHexString(move) + ")");
+						}
+						server.getMetrics().botMoveFailed();
+						long[] moves = new long[BigTwoMoveGenerator.MAX_NUM_OF_MOVES];
+						engine.getLegalMoves(playerID, moves);
+						move = moves[0];
+					}
+					playBotMove(playerID, BigTwoEngine.getCardIdx(cardsInHand, move));
+				}
+			});
+		}
+
+		/**
+		 * Returns true if a game has been started and has neither ended nor been aborted yet.
+		 * @return true if a game is in progress; otherwise false
+		 */
+		public boolean isGameInProgress() {
+			return !engine.endOfGame();
+		}
+	}
+	
 	/**
 	 * main() method for starting the server.
 	 * 
 	 * @param args
-	 *            the port to be used by the server. The default port 5000 will
-	 *            be used if no arguments has been supplied
+	 *            the options of the server (see printUsage()). For backward
+	 *            compatibility, the port and the thread model can also be given
+	 *            as the first two arguments. A Swing console is shown unless the
+	 *            server runs headless (--headless or -Djava.awt.headless=true), in
+	 *            which case the log is printed to the standard output and no AWT
+	 *            class is loaded
 	 */
 	public static void main(String[] args) {
-		BigTwoServer server = new BigTwoServer();
-		if (args.length > 0) {
-			server.start(Integer.parseInt(args[0]));
+		int port = DEFAULT_PORT;
+		int maxNumOfRooms = DEFAULT_MAX_NUM_OF_ROOMS;
+		ThreadModel threadModel = ThreadModel.fromSystemProperty(ThreadModel.SELECTOR);
+		int maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+		OverflowPolicy overflowPolicy = OverflowPolicy.DISCONNECT;
+		ServerLog.Level logLevel = ServerLog.Level.INFO;
+		int drainTimeout = DEFAULT_DRAIN_TIMEOUT;
+		int metricsInterval = 0;
+		boolean metricsJson = false;
+		int botFillDelay = -1;
+		int botTime = DEFAULT_BOT_TIME;
+		boolean headless = Boolean.getBoolean("java.awt.headless");
+
+		try {
+			int numOfPositionalArgs = 0;
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--headless":
+					headless = true;
+					break;
+				case "--port":
+					port = Integer.parseInt(args[++i]);
+					break;
+				case "--rooms":
+					maxNumOfRooms = Integer.parseInt(args[++i]);
+					break;
+				case "--threads":
+					threadModel = ThreadModel.valueOf(args[++i].toUpperCase());
+					break;
+				case "--max-queued-bytes":
+					maxQueuedBytes = Integer.parseInt(args[++i]);
+					break;
+				case "--overflow":
+					overflowPolicy = OverflowPolicy.valueOf(args[++i].toUpperCase());
+					break;
+				case "--log-level":
+					logLevel = ServerLog.Level.valueOf(args[++i].toUpperCase());
+					break;
+				case "--drain-timeout":
+					drainTimeout = Integer.parseInt(args[++i]);
+					break;
+				case "--metrics-interval":
+					metricsInterval = Integer.parseInt(args[++i]);
+					break;
+				case "--metrics-format":
+					String format = args[++i];
+					if (!format.equals("text") && !format.equals("json")) {
+						throw new IllegalArgumentException("unknown metrics format " + format);
+					}
+					metricsJson = format.equals("json");
+					break;
+				case "--bots":
+					botFillDelay = Integer.parseInt(args[++i]);
+					break;
+				case "--bot-time":
+					botTime = Integer.parseInt(args[++i]);
+					break;
+				case "--help":
+					printUsage();
+					return;
+				default:
+					if (args[i].startsWith("--") || numOfPositionalArgs >= 2) {
+						throw new IllegalArgumentException("unknown option " + args[i]);
+					} else if (numOfPositionalArgs++ == 0) {
+						port = Integer.parseInt(args[i]);
+					} else {
+						threadModel = ThreadModel.valueOf(args[i].toUpperCase());
+					}
+					break;
+				}
+			}
+			if (maxNumOfRooms <= 0 || maxQueuedBytes <= 0 || drainTimeout < 0 || metricsInterval < 0
+					|| botFillDelay < -1 || botTime < 0) {
+				throw new IllegalArgumentException("limits must be positive");
+			}
+		} catch (RuntimeException ex) {
+			System.err.println("Invalid arguments: " + ((ex instanceof ArrayIndexOutOfBoundsException)
+					? "missing value of the last option" : ex.getMessage()));
+			printUsage();
+			System.exit(2);
+		}
+
+		BigTwoServer server = new BigTwoServer(maxNumOfRooms);
+		server.setThreadModel(threadModel);
+		server.setOutboundQueueLimit(maxQueuedBytes, overflowPolicy);
+		server.getLog().setLevel(logLevel);
+		server.setBot(new BigTwoMonteCarloBot(), botTime);
+		server.setBotFillDelay(botFillDelay * 1000L);
+		if (headless) {
+			// no display: prints the log to the standard output
+			System.setProperty("java.awt.headless", "true");
+			server.getLog().addListener(ServerLog.standardOutput());
 		} else {
-			server.start(2396);
+			server.showConsole();
 		}
+
+		if (metricsInterval > 0) {
+			// dumps the metrics to the log periodically
+			server.getMetrics().startReporting(metricsInterval, metricsJson, server.getLog()::info);
+		}
+
+		// lets the games in progress end before the JVM exits (e.g., on SIGTERM)
+		long drainTimeoutMillis = drainTimeout * 1000L;
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			server.stop(drainTimeoutMillis);
+			server.getLog().flush(1000);
+		}, "BigTwoServer-shutdown"));
+
+		server.start(port);
 	} // main
+	
+	/**
+	 * Prints the options of the server to the standard error.
+	 */
+	private static void printUsage() {
+		System.err.println("Usage: java BigTwoServer [options] [port [threadModel]]");
+		System.err.println("  --headless               runs without a console and logs to the standard output");
+		System.err.println("  --port <port>            the port of the server (default: " + DEFAULT_PORT + ")");
+		System.err.println("  --rooms <n>              the maximum number of game rooms (default: "
+				+ DEFAULT_MAX_NUM_OF_ROOMS + ")");
+		System.err.println("  --threads <model>        SELECTOR, PLATFORM or VIRTUAL (default: SELECTOR)");
+		System.err.println("  --max-queued-bytes <n>   the outbound queue limit of a client (default: "
+				+ DEFAULT_MAX_QUEUED_BYTES + ")");
+		System.err.println("  --overflow <policy>      DROP, COALESCE or DISCONNECT (default: DISCONNECT)");
+		System.err.println("  --log-level <level>      DEBUG, INFO, WARN or ERROR (default: INFO)");
+		System.err.println("  --drain-timeout <s>      the time to wait for the games in progress on shutdown (default: "
+				+ DEFAULT_DRAIN_TIMEOUT + ")");
+		System.err.println("  --metrics-interval <s>   dumps the metrics to the log every s seconds (default: never)");
+		System.err.println("  --metrics-format <f>     text or json (default: text)");
+		System.err.println("  --bots <s>               bots take the empty slots of a room s seconds after a player");
+		System.err.println("                           is ready, and the slots of the players leaving (default: no bots)");
+		System.err.println("  --bot-time <ms>          the time for which a bot searches for its move (default: "
+				+ DEFAULT_BOT_TIME + ")");
+	}
 }
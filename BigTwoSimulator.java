@@ -0,0 +1,422 @@
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This class is used to play complete Big Two games between bots (see
+ * BigTwoBot) without any GUI or network, for tuning the bots and checking rule
+ * changes. The games are played by BigTwoEngine, so every move goes through
+ * the same validation, composeHand() and Hand comparisons as a real game.
+ * <p>
+ * The games are split into tasks run on a fork-join pool, so they are spread
+ * across all the cores with work stealing. Each task plays its games on its
+ * own engine, deck and position, and deals them with its own
+ * random generator split from the seed of the run, so the deals of a run only
+ * depend on its seed. The results of a run between deterministic bots (such
+ * as BigTwoGreedyBot) then only depend on its seed too, whatever the number of
+ * threads; this does not hold for BigTwoMonteCarloBot, whose samples are drawn
+ * with the random generators of the worker threads until a deadline. The
+ * results of the tasks are merged into the win rates by seat, the advantage
+ * of the first player, the lengths of the games and the frequencies of the
+ * types of hands played and led.
+ *
+ * @author karanvs
+ *
+ */
+public class BigTwoSimulator {
+	/**
+	 * The default number of games of a run.
+	 */
+	public static final int DEFAULT_NUM_OF_GAMES = 100000;
+	/**
+	 * The default time (in milliseconds) for which a searching bot chooses a
+	 * move.
+	 */
+	public static final int DEFAULT_BOT_TIME = 1;
+
+	// the number of games played by a task without splitting it
+	private static final int GAMES_PER_TASK = 64;
+	// the names of the types of hands (see Hand.getType()) by category
+	private static final String[] HAND_TYPES = { "Single", "Pair", "Triple",
+			"Straight", "Flush", "FullHouse", "Quad", "StraightFlush" };
+
+	// the bots playing in the seats
+	private final BigTwoBot[] bots;
+	// the time (in nanoseconds) for which a bot chooses a move
+	private final long botTime;
+	// the pool running the games
+	private final ForkJoinPool pool;
+
+	/**
+	 * Creates and returns an instance of the BigTwoSimulator class.
+	 *
+	 * @param bots
+	 *            the bots playing in the four seats
+	 * @param botTime
+	 *            the time (in milliseconds) for which a bot chooses a move
+	 * @param pool
+	 *            the pool running the games
+	 */
+	public BigTwoSimulator(BigTwoBot[] bots, long botTime, ForkJoinPool pool) {
+		if (bots.length != BigTwoPosition.NUM_OF_PLAYERS || botTime < 0) {
+			throw new IllegalArgumentException("Invalid bots");
+		}
+		this.bots = bots.clone();
+		this.botTime = botTime * 1000000L;
+		this.pool = pool;
+	}
+
+	/**
+	 * Plays the specified number of games and returns their results.
+	 *
+	 * @param numOfGames
+	 *            the number of games to be played
+	 * @param seed
+	 *            the seed of the deals
+	 * @return the results of the games
+	 */
+	public Results run(long numOfGames, long seed) {
+		return pool.invoke(new SimulationTask(0, numOfGames, new SplittableRandom(seed)));
+	}
+
+	/**
+	 * This class is used to hold the results of a number of games.
+	 */
+	public static final class Results {
+		private long numOfGames = 0;
+		private final long[] wins = new long[BigTwoPosition.NUM_OF_PLAYERS];
+		private long firstPlayerWins = 0;
+		private long numOfMoves = 0;
+		private long numOfPasses = 0;
+		private int minMoves = Integer.MAX_VALUE;
+		private int maxMoves = 0;
+		private long cardsLeft = 0;
+		private long illegalMoves = 0;
+		private final long[] handsPlayed = new long[HAND_TYPES.length];
+		private final long[] handsLed = new long[HAND_TYPES.length];
+		private long elapsedTime = 0;
+
+		/**
+		 * Returns the number of games played.
+		 *
+		 * @return the number of games played
+		 */
+		public long getNumOfGames() {
+			return numOfGames;
+		}
+
+		/**
+		 * Returns the number of games won by the bot in the specified seat.
+		 *
+		 * @param playerIdx
+		 *            the index of the seat
+		 * @return the number of games won
+		 */
+		public long getWins(int playerIdx) {
+			return wins[playerIdx];
+		}
+
+		/**
+		 * Returns the number of games won by the first player, i.e. the player
+		 * holding the three of diamonds.
+		 *
+		 * @return the number of games won by the first player
+		 */
+		public long getFirstPlayerWins() {
+			return firstPlayerWins;
+		}
+
+		/**
+		 * Returns the number of hands of the specified type played.
+		 *
+		 * @param category
+		 *            the category of the hands (see BigTwoHandClassifier)
+		 * @return the number of hands played
+		 */
+		public long getHandsPlayed(int category) {
+			return handsPlayed[category];
+		}
+
+		/**
+		 * Returns the number of hands of the specified type led, i.e. played
+		 * by a player who did not have to beat a hand.
+		 *
+		 * @param category
+		 *            the category of the hands (see BigTwoHandClassifier)
+		 * @return the number of hands led
+		 */
+		public long getHandsLed(int category) {
+			return handsLed[category];
+		}
+
+		/**
+		 * Returns the number of illegal moves chosen by the bots, each of
+		 * which ends its game without a winner.
+		 *
+		 * @return the number of illegal moves
+		 */
+		public long getIllegalMoves() {
+			return illegalMoves;
+		}
+
+		// adds the results of other games to these results
+		private void merge(Results results) {
+			numOfGames += results.numOfGames;
+			for (int i = 0; i < wins.length; i++) {
+				wins[i] += results.wins[i];
+			}
+			firstPlayerWins += results.firstPlayerWins;
+			numOfMoves += results.numOfMoves;
+			numOfPasses += results.numOfPasses;
+			minMoves = Math.min(minMoves, results.minMoves);
+			maxMoves = Math.max(maxMoves, results.maxMoves);
+			cardsLeft += results.cardsLeft;
+			illegalMoves += results.illegalMoves;
+			for (int i = 0; i < handsPlayed.length; i++) {
+				handsPlayed[i] += results.handsPlayed[i];
+				handsLed[i] += results.handsLed[i];
+			}
+		}
+
+		/**
+		 * Returns a report of these results.
+		 *
+		 * @return a report of these results
+		 */
+		public String toString() {
+			StringBuilder report = new StringBuilder();
+			double games = Math.max(numOfGames, 1);
+			report.append(String.format(Locale.ROOT, "%d games in %.1f s (%.0f games/s), %d illegal moves%n",
+					numOfGames, elapsedTime / 1e9, numOfGames / Math.max(elapsedTime / 1e9, 1e-9), illegalMoves));
+			report.append("win rate by seat:");
+			for (int i = 0; i < wins.length; i++) {
+				report.append(String.format(Locale.ROOT, " %.2f%%", 100 * wins[i] / games));
+			}
+			report.append(String.format(Locale.ROOT, "%nwin rate of the first player: %.2f%%%n", 100 * firstPlayerWins / games));
+			report.append(String.format(Locale.ROOT, "moves per game: %.1f (min %d, max %d), passes %.1f%n",
+					numOfMoves / games, (numOfGames == 0) ? 0 : minMoves, maxMoves, numOfPasses / games));
+			report.append(String.format(Locale.ROOT, "cards left per loser: %.2f%n", cardsLeft / (games * (wins.length - 1))));
+			report.append("hands played:");
+			appendFrequencies(report, handsPlayed);
+			report.append(String.format("%nhands led:"));
+			appendFrequencies(report, handsLed);
+			return report.toString();
+		}
+
+		// appends the frequencies of the types of hands counted
+		private static void appendFrequencies(StringBuilder report, long[] counts) {
+			long total = 0;
+			for (long count : counts) {
+				total += count;
+			}
+			for (int i = 0; i < counts.length; i++) {
+				report.append(String.format(Locale.ROOT, " %s %.2f%%", HAND_TYPES[i],
+						100.0 * counts[i] / Math.max(total, 1)));
+			}
+		}
+	}
+
+	/**
+	 * This class is used to hold the state of the games played by a task,
+	 * which is reused from game to game. It is not shared with the other tasks:
+	 * a worker thread waiting for a task (e.g. a search of a bot) may run
+	 * another task in the meantime.
+	 */
+	private static final class Table {
+		private final BigTwoEngine engine = new BigTwoEngine();
+		private final BigTwoDeck deck = new BigTwoDeck();
+		private final BigTwoPosition position = new BigTwoPosition();
+	}
+
+	/**
+	 * This class is used to play a range of games, which is split in halves
+	 * while it is large.
+	 */
+	private final class SimulationTask extends RecursiveTask<Results> {
+		private static final long serialVersionUID = 1L;
+		private final long from;
+		private final long to;
+		private final SplittableRandom random;
+
+		private SimulationTask(long from, long to, SplittableRandom random) {
+			this.from = from;
+			this.to = to;
+			this.random = random;
+		}
+
+		protected Results compute() {
+			if (to - from > GAMES_PER_TASK) {
+				long middle = (from + to) >>> 1;
+				// the random generators are split in the same order in every run
+				SimulationTask left = new SimulationTask(from, middle, random.split());
+				SimulationTask right = new SimulationTask(middle, to, random);
+				left.fork();
+				Results results = right.compute();
+				results.merge(left.join());
+				return results;
+			}
+			Results results = new Results();
+			Table table = new Table();
+			for (long i = from; i < to; i++) {
+				playGame(table, random, results);
+			}
+			return results;
+		}
+	}
+
+	// plays a game with a deck shuffled with the specified random generator
+	private void playGame(Table table, SplittableRandom random, Results results) {
+		BigTwoEngine engine = table.engine;
+		BigTwoDeck deck = table.deck;
+		// the deal only depends on the random generator, not on the previous games
+		deck.initialize();
+		deck.shuffle(random);
+		engine.start(deck);
+		int firstPlayerIdx = engine.getCurrentPlayerIdx();
+		int numOfMoves = 0;
+		while (!engine.endOfGame()) {
+			int playerIdx = engine.getCurrentPlayerIdx();
+			table.position.setFrom(engine);
+			long move = bots[playerIdx].chooseMove(table.position, System.nanoTime() + botTime);
+			CardList cardsInHand = engine.getPlayerList().get(playerIdx).getCardsInHand();
+			if (!engine.playMove(playerIdx, BigTwoEngine.getCardIdx(cardsInHand, move))) {
+				results.illegalMoves++;
+				return;
+			}
+			numOfMoves++;
+			if (move == CardSet.EMPTY) {
+				results.numOfPasses++;
+			}
+		}
+
+		results.numOfGames++;
+		results.numOfMoves += numOfMoves;
+		results.minMoves = Math.min(results.minMoves, numOfMoves);
+		results.maxMoves = Math.max(results.maxMoves, numOfMoves);
+		for (int i = 0; i < BigTwoPosition.NUM_OF_PLAYERS; i++) {
+			int numOfCards = engine.getPlayerList().get(i).getNumOfCards();
+			if (numOfCards == 0) {
+				results.wins[i]++;
+				if (i == firstPlayerIdx) {
+					results.firstPlayerWins++;
+				}
+			}
+			results.cardsLeft += numOfCards;
+		}
+		CardGamePlayer lastPlayer = null;
+		for (Hand hand : engine.getHandsOnTable()) {
+			int category = BigTwoHandClassifier.getCategory(hand.getStrength());
+			results.handsPlayed[category]++;
+			// a player leads when the other players have all passed on its last hand
+			if (lastPlayer == null || hand.getPlayer() == lastPlayer) {
+				results.handsLed[category]++;
+			}
+			lastPlayer = hand.getPlayer();
+		}
+	}
+
+	/**
+	 * Returns the bot with the specified name.
+	 *
+	 * @param name
+	 *            greedy or mc (Monte Carlo search)
+	 * @param pool
+	 *            the pool on which the searching bots run
+	 * @return the bot with the specified name
+	 */
+	private static BigTwoBot createBot(String name, ForkJoinPool pool) {
+		switch (name) {
+		case "greedy":
+			return new BigTwoGreedyBot();
+		case "mc":
+			// the games already keep all the cores busy, so a decision is not split
+			// (and is thus run by the thread playing the game, not by the pool)
+			return new BigTwoMonteCarloBot(pool, 1, BigTwoMonteCarloBot.DEFAULT_MAX_SAMPLES);
+		default:
+			throw new IllegalArgumentException("unknown bot " + name);
+		}
+	}
+
+	/**
+	 * main() method for running a simulation.
+	 *
+	 * @param args
+	 *            the options of the simulation (see printUsage())
+	 */
+	public static void main(String[] args) {
+		long numOfGames = DEFAULT_NUM_OF_GAMES;
+		String[] botNames = { "greedy" };
+		int botTime = DEFAULT_BOT_TIME;
+		long seed = System.nanoTime();
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		ForkJoinPool pool = null;
+		BigTwoBot[] bots = new BigTwoBot[BigTwoPosition.NUM_OF_PLAYERS];
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				switch (args[i]) {
+				case "--games":
+					numOfGames = Long.parseLong(args[++i]);
+					break;
+				case "--bots":
+					botNames = args[++i].split(",");
+					break;
+				case "--bot-time":
+					botTime = Integer.parseInt(args[++i]);
+					break;
+				case "--seed":
+					seed = Long.parseLong(args[++i]);
+					break;
+				case "--threads":
+					parallelism = Integer.parseInt(args[++i]);
+					break;
+				case "--help":
+					printUsage();
+					return;
+				default:
+					throw new IllegalArgumentException("unknown option " + args[i]);
+				}
+			}
+			if (numOfGames <= 0 || botTime < 0 || parallelism <= 0) {
+				throw new IllegalArgumentException("numbers must be positive");
+			}
+			if (botNames.length != 1 && botNames.length != BigTwoPosition.NUM_OF_PLAYERS) {
+				throw new IllegalArgumentException("one bot or a bot for each of the four seats is needed");
+			}
+			pool = new ForkJoinPool(parallelism);
+			for (int i = 0; i < bots.length; i++) {
+				bots[i] = createBot(botNames[(botNames.length == 1) ? 0 : i], pool);
+			}
+		} catch (RuntimeException ex) {
+			System.err.println("Invalid arguments: " + ((ex instanceof ArrayIndexOutOfBoundsException)
+					? "missing value of the last option" : ex.getMessage()));
+			printUsage();
+			System.exit(2);
+		}
+
+		System.out.println("Plays " + numOfGames + " games between " + String.join(",", botNames)
+				+ " on " + parallelism + " threads (seed " + seed + ")");
+		BigTwoSimulator simulator = new BigTwoSimulator(bots, botTime, pool);
+		long start = System.nanoTime();
+		Results results = simulator.run(numOfGames, seed);
+		results.elapsedTime = System.nanoTime() - start;
+		System.out.println(results);
+		pool.shutdown();
+	}
+
+	/**
+	 * Prints the options of the simulator to the standard error.
+	 */
+	private static void printUsage() {
+		System.err.println("Usage: java BigTwoSimulator [options]");
+		System.err.println("  --games <n>              the number of games (default: " + DEFAULT_NUM_OF_GAMES + ")");
+		System.err.println("  --bots <b>               greedy or mc for all seats, or a comma-separated bot for each seat");
+		System.err.println("                           (default: greedy)");
+		System.err.println("  --bot-time <ms>          the time for which a searching bot chooses a move (default: "
+				+ DEFAULT_BOT_TIME + ")");
+		System.err.println("  --seed <n>               the seed of the deals, which repeats the games of greedy bots");
+		System.err.println("                           (default: random)");
+		System.err.println("  --threads <n>            the number of threads (default: the number of processors)");
+	}
+}
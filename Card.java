@@ -10,12 +10,21 @@ public class Card implements Comparable<Card>, Serializable {
 	static boolean SUPPORT_COLOR = false;
 	private static final char[] SUITS = { '\u2666', '\u2663', '\u2665', '\u2660' }; // {Diamond, Club, Heart, Spade}
 	private static final char[] RANKS = { 'A', '2', '3', '4', '5', '6', '7', '8', '9', '0', 'J', 'Q', 'K' };
+	// the canonical instances of the 52 cards, indexed by ordinal (suit * 13 + rank)
+	private static final Card[] CARDS = new Card[CardSet.NUM_OF_CARDS];
+
+	static {
+		for (int i = 0; i < CARDS.length; i++) {
+			CARDS[i] = new Card(i / 13, i % 13);
+		}
+	}
 
 	protected final int suit; // 0 - 3
 	protected final int rank; // 0 - 12
 
 	/**
-	 * Creates and returns an instance of the Card class.
+	 * Creates and returns an instance of the Card class. Cards are interned, so
+	 * use valueOf() to obtain the canonical instance of a card instead.
 	 * 
 	 * @param suit an int value between 0 and 3 representing the suit of a card:
 	 *             <p>
@@ -25,11 +34,33 @@ public class Card implements Comparable<Card>, Serializable {
 	 *             0 = 'A', 1 = '2', 2 = '3', ..., 8 = '9', 9 = '0', 10 = 'J', 11 =
 	 *             'Q', 12 = 'K'
 	 */
-	public Card(int suit, int rank) {
+	protected Card(int suit, int rank) {
 		this.suit = suit;
 		this.rank = rank;
 	}
 
+	/**
+	 * Returns the canonical instance of the card with the specified suit and rank.
+	 * 
+	 * @param suit an int value between 0 and 3 representing the suit of a card
+	 * @param rank an int value between 0 and 12 representing the rank of a card
+	 * @return the canonical instance of the card
+	 */
+	public static Card valueOf(int suit, int rank) {
+		return CARDS[CardSet.ordinal(suit, rank)];
+	}
+
+	/**
+	 * Returns the canonical instance of the card with the specified ordinal.
+	 * 
+	 * @param ordinal an int value between 0 and 51 representing a card (suit * 13
+	 *                + rank)
+	 * @return the canonical instance of the card
+	 */
+	public static Card valueOf(int ordinal) {
+		return CARDS[ordinal];
+	}
+
 	/**
 	 * Returns the suit of a card.
 	 * 
@@ -53,6 +84,15 @@ public class Card implements Comparable<Card>, Serializable {
 		return rank;
 	}
 
+	/**
+	 * Returns the ordinal of the card, i.e., its position in a new deck.
+	 * 
+	 * @return an int value between 0 and 51 equal to suit * 13 + rank
+	 */
+	public int getOrdinal() {
+		return CardSet.ordinal(suit, rank);
+	}
+
 	/**
 	 * Returns a string representation of the card.
 	 * 
@@ -95,6 +135,9 @@ public class Card implements Comparable<Card>, Serializable {
 	 *         false otherwise
 	 */
 	public boolean equals(Object card) {
+		if (this == card) {
+			return true;
+		}
 		return (this.rank == ((Card) card).getRank() && suit == ((Card) card).getSuit());
 	}
 
@@ -106,4 +149,13 @@ public class Card implements Comparable<Card>, Serializable {
 	public int hashCode() {
 		return rank;
 	}
+
+	/**
+	 * Replaces a deserialized card with its canonical instance.
+	 * 
+	 * @return the canonical instance of the card
+	 */
+	protected Object readResolve() {
+		return getClass() == Card.class ? valueOf(suit, rank) : this;
+	}
 }
@@ -0,0 +1,112 @@
+import java.io.Serializable;
+
+/**
+ * This class is used to represent the cards dealt to the players of a card
+ * game as card sets (see CardSet). A deal made by the server knows the cards
+ * of every player, whereas the view of the deal sent to a player only holds
+ * the cards of this player and the public cards (e.g. the card deciding who
+ * starts the game); the other cards of the opponents are hidden, and only
+ * their number is known.
+ *
+ * @author karanvs
+ */
+public class CardGameDeal implements Serializable {
+	private static final long serialVersionUID = 2467153281342806474L;
+	// the cards known of the hand of each player
+	private final long[] cards;
+	// the number of cards held by each player (known or hidden)
+	private final int[] numOfCards;
+
+	/**
+	 * Creates and returns an instance of the CardGameDeal class.
+	 *
+	 * @param cards      the cards known of the hand of each player (see CardSet)
+	 * @param numOfCards the number of cards held by each player, which is at
+	 *                   least the number of cards known
+	 */
+	public CardGameDeal(long[] cards, int[] numOfCards) {
+		if (cards.length != numOfCards.length) {
+			throw new IllegalArgumentException("Invalid number of players");
+		}
+		for (int i = 0; i < cards.length; i++) {
+			if (numOfCards[i] < CardSet.size(cards[i])) {
+				throw new IllegalArgumentException("Invalid number of cards");
+			}
+		}
+		this.cards = cards.clone();
+		this.numOfCards = numOfCards.clone();
+	}
+
+	/**
+	 * Deals the cards of the specified deck to the players in sequence (i.e.,
+	 * the i-th card to player i % numOfPlayers), as CardGame.start() does.
+	 *
+	 * @param deck         the deck of (shuffled) cards
+	 * @param numOfPlayers the number of players
+	 * @return the deal, in which all the cards are known
+	 */
+	public static CardGameDeal deal(Deck deck, int numOfPlayers) {
+		long[] cards = new long[numOfPlayers];
+		int[] numOfCards = new int[numOfPlayers];
+		for (int i = 0; i < deck.size(); i++) {
+			cards[i % numOfPlayers] |= CardSet.bit(deck.getCard(i));
+			numOfCards[i % numOfPlayers]++;
+		}
+		return new CardGameDeal(cards, numOfCards);
+	}
+
+	/**
+	 * Returns the view of this deal sent to the specified player, in which
+	 * the cards of the other players are hidden except the public ones.
+	 *
+	 * @param playerIdx   the index of the player
+	 * @param publicCards the cards shown to all the players (see CardSet)
+	 * @return the view of this deal
+	 */
+	public CardGameDeal getView(int playerIdx, long publicCards) {
+		long[] visibleCards = new long[cards.length];
+		for (int i = 0; i < cards.length; i++) {
+			visibleCards[i] = (i == playerIdx) ? cards[i] : (cards[i] & publicCards);
+		}
+		return new CardGameDeal(visibleCards, numOfCards);
+	}
+
+	/**
+	 * Returns the number of players.
+	 *
+	 * @return the number of players
+	 */
+	public int getNumOfPlayers() {
+		return cards.length;
+	}
+
+	/**
+	 * Returns the cards known of the hand of the specified player.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the cards known (see CardSet)
+	 */
+	public long getCards(int playerIdx) {
+		return cards[playerIdx];
+	}
+
+	/**
+	 * Returns the number of cards held by the specified player.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the number of cards held, known or hidden
+	 */
+	public int getNumOfCards(int playerIdx) {
+		return numOfCards[playerIdx];
+	}
+
+	/**
+	 * Returns the number of hidden cards held by the specified player.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the number of cards held which are not known
+	 */
+	public int getNumOfHiddenCards(int playerIdx) {
+		return numOfCards[playerIdx] - CardSet.size(cards[playerIdx]);
+	}
+}
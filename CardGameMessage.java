@@ -40,14 +40,18 @@ public class CardGameMessage extends GameMessage {
 	 */
 	public static final int READY = 4;
 	/**
-	 * Broadcast by the server when all clients are ready for a new game. In this message, playerID is 
-	 * -1 (no being used), and data is a reference to a Deck object (a shuffled deck for the new game).
+	 * Sent by the server to each client when all clients are ready for a new game. In this message,
+	 * playerID specifies the player receiving the message, and data is a reference to a CardGameDeal
+	 * object holding the cards dealt to this player only (the cards of the other players are hidden,
+	 * except the public ones, and only their number is known).
 	 */
 	public static final int START = 5;
 	/**
 	 * Sent by a client when the local player makes a move. The server will broadcast this message upon
 	 * receiving it. In this message, playerID specifies the player who makes the move, and data is a
-	 * reference to an array of int specifying the indices of the cards being played.
+	 * reference to an array of int specifying the indices of the cards being played (or null for a pass).
+	 * In the message broadcast by a Big Two server, data is a Long holding the set of cards played
+	 * (see CardSet), or null for a pass.
 	 */
 	public static final int MOVE = 6;
 	/**
@@ -57,6 +61,12 @@ public class CardGameMessage extends GameMessage {
 	 * sent this chat message, and data is a reference to a string containing a formated chat message.
 	 */
 	public static final int MSG = 7;
+	/**
+	 * Sent by the server only to the client whose move has been rejected as illegal (the move is not
+	 * broadcast). In this message, playerID specifies the player who made the move, and data is simply
+	 * null (not being used).
+	 */
+	public static final int ILLEGAL_MOVE = 8;
 
 	/**
 	 * Creates and returns an instance of CardGameMessage.
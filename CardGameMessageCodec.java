@@ -0,0 +1,290 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This class is used to encode and decode the messages exchanged between a
+ * card game server and its clients. Each message is sent as a frame made of a
+ * 4-byte length followed by the encoded message, so that a non-blocking server
+ * can split the incoming bytes into messages without blocking on a stream.
+ * <p>
+ * A message is encoded in a compact binary form: a type byte, a playerID byte
+ * and a payload depending on the type of the message:
+ * <ul>
+ * <li>PLAYER_LIST: a count byte, then for each player a presence byte followed
+ * by the name (in modified UTF-8) if the player is present</li>
+ * <li>JOIN, QUIT and MSG: a presence byte followed by the string (in modified
+ * UTF-8) if it is not null</li>
+ * <li>START with a deal (see CardGameDeal): a marker byte (254) and a count
+ * byte, then for each player the number of cards held, the number of cards
+ * known and the ordinal of each card known</li>
+ * <li>MOVE with card indices (from a client): a count byte (255 for a pass)
+ * followed by the card indices</li>
+ * <li>MOVE with a set of cards (see CardSet, from the server): a marker byte
+ * (254), a count byte and the ordinal of each card played</li>
+ * <li>FULL, READY and ILLEGAL_MOVE: no payload</li>
+ * </ul>
+ * The view of a Big Two deal sent to a player thus takes about 20 bytes, and
+ * a move a few bytes.
+ * 
+ * @author karanvs
+ *
+ */
+public class CardGameMessageCodec {
+	/**
+	 * The maximum length of an encoded message (excluding the 4-byte length).
+	 * Longer frames are treated as a protocol error.
+	 */
+	public static final int MAX_FRAME_LENGTH = 64 * 1024;
+
+	// count byte of a MOVE message representing a pass (null card indices)
+	private static final int PASS = 255;
+	// marker byte of a START message holding a deal, or count byte of a MOVE
+	// message holding a set of cards instead of card indices
+	private static final int CARD_SETS = 254;
+
+	/**
+	 * Creates and returns an instance of the CardGameMessageCodec class.
+	 */
+	public CardGameMessageCodec() {
+	}
+
+	/**
+	 * Encodes the specified message into a frame.
+	 * 
+	 * @param message
+	 *            the message to be encoded
+	 * @return a buffer holding the frame, ready to be written
+	 * @throws IOException
+	 *             if the message cannot be encoded
+	 */
+	public ByteBuffer encode(GameMessage message) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(16);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0);
+		out.writeByte(message.getType());
+		out.writeByte(message.getPlayerID());
+
+		Object data = message.getData();
+		switch (message.getType()) {
+		case CardGameMessage.PLAYER_LIST:
+			String[] names = (String[]) data;
+			out.writeByte(names.length);
+			for (String name : names) {
+				writeString(out, name);
+			}
+			break;
+		case CardGameMessage.JOIN:
+		case CardGameMessage.QUIT:
+		case CardGameMessage.MSG:
+			writeString(out, (String) data);
+			break;
+		case CardGameMessage.START:
+			CardGameDeal deal = (CardGameDeal) data;
+			out.writeByte(CARD_SETS);
+			out.writeByte(deal.getNumOfPlayers());
+			for (int i = 0; i < deal.getNumOfPlayers(); i++) {
+				out.writeByte(deal.getNumOfCards(i));
+				writeCards(out, deal.getCards(i));
+			}
+			break;
+		case CardGameMessage.MOVE:
+			if (data instanceof Long) {
+				out.writeByte(CARD_SETS);
+				writeCards(out, (Long) data);
+				break;
+			}
+			int[] cardIdx = (int[]) data;
+			if (cardIdx == null) {
+				out.writeByte(PASS);
+			} else {
+				if (cardIdx.length >= CARD_SETS) {
+					throw new IOException("Too many cards in a move");
+				}
+				out.writeByte(cardIdx.length);
+				for (int idx : cardIdx) {
+					if (idx < 0 || idx > 255) {
+						throw new IOException("Invalid card index: " + idx);
+					}
+					out.writeByte(idx);
+				}
+			}
+			break;
+		case CardGameMessage.FULL:
+		case CardGameMessage.READY:
+		case CardGameMessage.ILLEGAL_MOVE:
+			break;
+		default:
+			throw new IOException("Unknown message type: " + message.getType());
+		}
+		out.close();
+
+		ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+		frame.putInt(0, frame.remaining() - 4);
+		return frame;
+	}
+
+	/**
+	 * Decodes a message from the body of a frame (without the 4-byte length).
+	 * 
+	 * @param body
+	 *            the buffer holding the encoded message
+	 * @return the decoded message
+	 * @throws IOException
+	 *             if the message cannot be decoded
+	 */
+	public CardGameMessage decode(ByteBuffer body) throws IOException {
+		byte[] bytes = new byte[body.remaining()];
+		body.get(bytes);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+		int type = in.readUnsignedByte();
+		int playerID = in.readByte();
+		Object data = null;
+		switch (type) {
+		case CardGameMessage.PLAYER_LIST:
+			String[] names = new String[in.readUnsignedByte()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = readString(in);
+			}
+			data = names;
+			break;
+		case CardGameMessage.JOIN:
+		case CardGameMessage.QUIT:
+		case CardGameMessage.MSG:
+			data = readString(in);
+			break;
+		case CardGameMessage.START:
+			if (in.readUnsignedByte() != CARD_SETS) {
+				throw new IOException("Invalid deal");
+			}
+			int numOfPlayers = in.readUnsignedByte();
+			long[] cards = new long[numOfPlayers];
+			int[] numOfCards = new int[numOfPlayers];
+			for (int i = 0; i < numOfPlayers; i++) {
+				numOfCards[i] = in.readUnsignedByte();
+				cards[i] = readCards(in);
+			}
+			try {
+				data = new CardGameDeal(cards, numOfCards);
+			} catch (IllegalArgumentException ex) {
+				throw new IOException("Invalid deal");
+			}
+			break;
+		case CardGameMessage.MOVE:
+			int count = in.readUnsignedByte();
+			if (count == CARD_SETS) {
+				data = readCards(in);
+			} else if (count != PASS) {
+				int[] cardIdx = new int[count];
+				for (int i = 0; i < count; i++) {
+					cardIdx[i] = in.readUnsignedByte();
+				}
+				data = cardIdx;
+			}
+			break;
+		case CardGameMessage.FULL:
+		case CardGameMessage.READY:
+		case CardGameMessage.ILLEGAL_MOVE:
+			break;
+		default:
+			throw new IOException("Unknown message type: " + type);
+		}
+		return new CardGameMessage(type, playerID, data);
+	}
+
+	/**
+	 * Writes the specified message as a frame to a (blocking) stream.
+	 * 
+	 * @param out
+	 *            the stream to which the frame is written
+	 * @param message
+	 *            the message to be written
+	 * @throws IOException
+	 *             if the message cannot be written
+	 */
+	public void writeMessage(DataOutputStream out, GameMessage message)
+			throws IOException {
+		ByteBuffer frame = encode(message);
+		out.write(frame.array(), frame.arrayOffset() + frame.position(),
+				frame.remaining());
+		out.flush();
+	}
+
+	/**
+	 * Reads a frame from a (blocking) stream and decodes its message.
+	 * 
+	 * @param in
+	 *            the stream from which the frame is read
+	 * @return the decoded message
+	 * @throws IOException
+	 *             if the stream is closed or the frame is invalid
+	 */
+	public CardGameMessage readMessage(DataInputStream in) throws IOException {
+		return decode(readFrame(in));
+	}
+
+	/**
+	 * Reads a frame from a (blocking) stream without decoding its message.
+	 * 
+	 * @param in
+	 *            the stream from which the frame is read
+	 * @return a buffer holding the body of the frame (without the 4-byte
+	 *         length)
+	 * @throws IOException
+	 *             if the stream is closed or the frame is invalid
+	 */
+	public ByteBuffer readFrame(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > MAX_FRAME_LENGTH) {
+			throw new IOException("Invalid frame length: " + length);
+		}
+		byte[] body = new byte[length];
+		in.readFully(body);
+		return ByteBuffer.wrap(body);
+	}
+
+	// writes a nullable string as a presence byte and its modified UTF-8 form
+	private static void writeString(DataOutputStream out, String string)
+			throws IOException {
+		if (string == null) {
+			out.writeByte(0);
+		} else {
+			out.writeByte(1);
+			out.writeUTF(string);
+		}
+	}
+
+	// reads a nullable string written by writeString
+	private static String readString(DataInputStream in) throws IOException {
+		return (in.readUnsignedByte() == 0) ? null : in.readUTF();
+	}
+
+	// writes a set of cards (see CardSet) as a count byte and the ordinal of each card
+	private static void writeCards(DataOutputStream out, long cards)
+			throws IOException {
+		if ((cards & ~CardSet.FULL_DECK) != CardSet.EMPTY) {
+			throw new IOException("Invalid set of cards");
+		}
+		out.writeByte(CardSet.size(cards));
+		for (; cards != CardSet.EMPTY; cards &= cards - 1) {
+			out.writeByte(Long.numberOfTrailingZeros(cards));
+		}
+	}
+
+	// reads a set of cards written by writeCards
+	private static long readCards(DataInputStream in) throws IOException {
+		long cards = CardSet.EMPTY;
+		for (int i = in.readUnsignedByte(); i > 0; i--) {
+			int ordinal = in.readUnsignedByte();
+			if (ordinal >= CardSet.NUM_OF_CARDS) {
+				throw new IOException("Invalid card: " + ordinal);
+			}
+			cards |= CardSet.bit(ordinal);
+		}
+		return cards;
+	}
+}
@@ -7,6 +7,7 @@ public class CardGamePlayer {
 	private static int playerId = 0;
 	private String name = "";
 	private CardList cardsInHand = new CardList();
+	private int numOfHiddenCards = 0;
 
 	/**
 	 * Creates and returns an instance of the Player class.
@@ -60,6 +61,9 @@ public class CardGamePlayer {
 	 * @param cards the list of cards to be removed from this player
 	 */
 	public void removeCards(CardList cards) {
+		if ((cardsInHand.getCardMask() & cards.getCardMask()) == CardSet.EMPTY) {
+			return;
+		}
 		for (int i = 0; i < cards.size(); i++) {
 			cardsInHand.removeCard(cards.getCard(i));
 		}
@@ -70,15 +74,37 @@ public class CardGamePlayer {
 	 */
 	public void removeAllCards() {
 		cardsInHand = new CardList();
+		numOfHiddenCards = 0;
+	}
+
+	/**
+	 * Sets the number of cards held by this player which are not known, e.g.,
+	 * the cards of an opponent in a network game. The hidden cards are not in
+	 * the list of cards held by this player.
+	 * 
+	 * @param numOfHiddenCards the number of hidden cards held by this player
+	 */
+	public void setNumOfHiddenCards(int numOfHiddenCards) {
+		this.numOfHiddenCards = numOfHiddenCards;
+	}
+
+	/**
+	 * Returns the number of cards held by this player which are not known.
+	 * 
+	 * @return the number of hidden cards held by this player
+	 */
+	public int getNumOfHiddenCards() {
+		return numOfHiddenCards;
 	}
 
 	/**
-	 * Returns the number of cards held by this player.
+	 * Returns the number of cards held by this player, including the hidden
+	 * cards.
 	 * 
 	 * @return the number of cards held by this player
 	 */
 	public int getNumOfCards() {
-		return cardsInHand.size();
+		return cardsInHand.size() + numOfHiddenCards;
 	}
 
 	/**
@@ -1,50 +1,120 @@
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-
-import javax.swing.JFrame;
-import javax.swing.JMenu;
-import javax.swing.JMenuBar;
-import javax.swing.JMenuItem;
-import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
-import javax.swing.ScrollPaneConstants;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * This class is used to model a card game server.
+ * This class is used to model a card game server. By default, all client
+ * connections are served by a single thread using non-blocking I/O and a
+ * selector, so idle connections do not need a thread each. Alternatively, each
+ * connection can be served by its own tasks doing blocking I/O on platform or
+ * virtual threads (see ThreadModel). The server hosts many independent
+ * game rooms (see GameRoom), and each connection is seated in the first room
+ * with an empty slot. There is no server-wide lock: each room has its own
+ * lock, and the connection registry and the list of rooms are concurrent
+ * collections. The server has no GUI of its own: its messages go to an
+ * asynchronous log (see ServerLog), which a Swing console can display.
+ * <p>
+ * If bots are enabled (see setBotFillDelay()), the empty slots of a room with
+ * a ready player are taken by bots after a while, and a bot takes over the
+ * slot of a player leaving a room in which other players are still seated,
+ * so a table is never left waiting for players who do not come.
  * 
  * @author Kenneth Wong
  *
  */
 public class CardGameServer {
+	/**
+	 * The policies for handling a message to a client whose outbound queue is
+	 * full, i.e., a client which does not read its messages fast enough.
+	 */
+	public enum OverflowPolicy {
+		/**
+		 * Drops the message. The client may then miss a part of the game.
+		 */
+		DROP,
+		/**
+		 * Discards the queued chat messages (which carry no game state) to
+		 * make room for the message, and disconnects the client if this is
+		 * not enough.
+		 */
+		COALESCE,
+		/**
+		 * Disconnects the client.
+		 */
+		DISCONNECT
+	}
+
+	/**
+	 * The default maximum number of bytes queued for sending to a client.
+	 */
+	public static final int DEFAULT_MAX_QUEUED_BYTES = 256 * 1024;
+
 	// Flag for silent mode (prevents printing the stack trace)
 	boolean silentMode = true;
 	// The name of this card game server
 	private String serverName;
 	// The maximum number of players in a card game
 	private final int maxNumOfPlayers;
-	// Array for holding sockets of the clients
-	private Socket[] clientSockets;
-	// Array for holding ObjectOutputStreams of the clients
-	private ObjectOutputStream[] clientOutputStreams;
-	// Array for holding player names of the clients
-	private String[] clientNames;
-	// Array for holding ready states of the clients
-	private boolean[] clientReadyStates;
-	// number of current players
-	private int numOfPlayers = 0;
-	// the main frame of the server
-	private JFrame frame = null;
-	// text area for displaying server states
-	private JTextArea textArea = null;
+	// The maximum number of game rooms hosted by this server
+	private final int maxNumOfRooms;
+	// List for holding the game rooms created so far (new rooms are added
+	// while holding the lock of the list, and lookups need no lock)
+	private final CopyOnWriteArrayList<GameRoom> rooms = new CopyOnWriteArrayList<GameRoom>();
+	// Set for holding all the open client connections
+	private final Set<ClientConnection> connections = ConcurrentHashMap.newKeySet();
+	// the connections disconnected while sending to them, which are removed
+	// by the selector thread (see ClientConnection.disconnect())
+	private final Queue<ClientConnection> pendingCloses = new ConcurrentLinkedQueue<ClientConnection>();
+	// the log of this server (displayed by the console, if any)
+	private final ServerLog log;
 	// a boolean indicating if the server is up
-	private boolean serverUp = false;
+	private volatile boolean serverUp = false;
+	// a boolean indicating if the server is shutting down
+	private volatile boolean shuttingDown = false;
+	// the channel accepting the connections
+	private ServerSocketChannel serverChannel = null;
+	// the selector used for serving all the connections
+	private Selector selector = null;
+	// the way the connections are served
+	private volatile ThreadModel threadModel = ThreadModel.SELECTOR;
+	// the executor running the tasks of the connections (blocking I/O only)
+	private ExecutorService executor = null;
+	// the maximum number of bytes queued for sending to a client
+	private volatile int maxQueuedBytes = DEFAULT_MAX_QUEUED_BYTES;
+	// the policy applied when the outbound queue of a client is full
+	private volatile OverflowPolicy overflowPolicy = OverflowPolicy.DISCONNECT;
+	// the delay (in milliseconds) before bots take the empty slots of a room
+	// with a ready player, or -1 if bots are disabled
+	private volatile long botFillDelay = -1;
+	// the executor running the delayed tasks of the rooms (created on first use)
+	private ScheduledExecutorService scheduler = null;
+	// the metrics of this server
+	private final ServerMetrics metrics = new ServerMetrics(this);
+	// the codec used for encoding and decoding the messages
+	final CardGameMessageCodec codec = new CardGameMessageCodec();
 
 	/**
-	 * Creates and returns an instance of the BigTwoServer class.
+	 * Creates and returns an instance of the CardGameServer class hosting a
+	 * single game room.
 	 * 
 	 * @param serverName
 	 *            the name of this card game server
@@ -52,50 +122,119 @@ public class CardGameServer {
 	 *            the maximum number of players in a card game
 	 */
 	public CardGameServer(String serverName, int maxNumOfPlayers) {
+		this(serverName, maxNumOfPlayers, 1);
+	}
+
+	/**
+	 * Creates and returns an instance of the CardGameServer class.
+	 * 
+	 * @param serverName
+	 *            the name of this card game server
+	 * @param maxNumOfPlayers
+	 *            the maximum number of players in a card game
+	 * @param maxNumOfRooms
+	 *            the maximum number of game rooms hosted by this server
+	 */
+	public CardGameServer(String serverName, int maxNumOfPlayers,
+			int maxNumOfRooms) {
 		this.serverName = serverName;
 		this.maxNumOfPlayers = maxNumOfPlayers;
+		this.maxNumOfRooms = maxNumOfRooms;
+		this.log = new ServerLog(serverName + "-log");
+	}
+
+	/**
+	 * Sets the limit of the outbound queue of each client and the policy
+	 * applied when a message would exceed it. A slow client then only delays
+	 * its own messages, never the other clients or the server.
+	 * 
+	 * @param maxQueuedBytes
+	 *            the maximum number of bytes queued for sending to a client
+	 * @param overflowPolicy
+	 *            the policy applied when the queue of a client is full
+	 */
+	public void setOutboundQueueLimit(int maxQueuedBytes,
+			OverflowPolicy overflowPolicy) {
+		if (maxQueuedBytes <= 0 || overflowPolicy == null) {
+			throw new IllegalArgumentException("Invalid outbound queue limit");
+		}
+		this.maxQueuedBytes = maxQueuedBytes;
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Enables or disables the bots. Once a player of a room is ready, the
+	 * empty slots of the room are taken by bots after the specified delay,
+	 * and a bot takes over the slot of a player leaving a room in which other
+	 * players are still seated. Only the rooms supporting bots are affected
+	 * (see GameRoom.canSeatBots()); bots are disabled by default.
+	 * 
+	 * @param botFillDelay
+	 *            the delay in milliseconds, or a negative value to disable
+	 *            the bots
+	 */
+	public void setBotFillDelay(long botFillDelay) {
+		this.botFillDelay = (botFillDelay < 0) ? -1 : botFillDelay;
+	}
+
+	/**
+	 * Returns the delay before bots take the empty slots of a room with a
+	 * ready player.
+	 * 
+	 * @return the delay in milliseconds, or -1 if the bots are disabled
+	 */
+	public long getBotFillDelay() {
+		return botFillDelay;
+	}
 
-		// creates arrays for holding client sockets, output streams, player
-		// names, and ready states
-		clientSockets = new Socket[maxNumOfPlayers];
-		clientOutputStreams = new ObjectOutputStream[maxNumOfPlayers];
-		clientNames = new String[maxNumOfPlayers];
-		clientReadyStates = new boolean[maxNumOfPlayers];
+	/**
+	 * Runs the specified task of a room after the specified delay on a
+	 * single daemon thread shared by all the rooms. The task must not block.
+	 * 
+	 * @param task
+	 *            the task to be run
+	 * @param delayMillis
+	 *            the delay in milliseconds
+	 */
+	synchronized void schedule(Runnable task, long delayMillis) {
+		if (scheduler == null) {
+			if (!serverUp) {
+				// the server is not up (or has been shut down)
+				return;
+			}
+			scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, serverName + "-scheduler");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		if (!scheduler.isShutdown()) {
+			scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+		}
+	}
 
-		buildGUI();
+	/**
+	 * Sets the way the connections are served. Must be called before the
+	 * server starts.
+	 * 
+	 * @param threadModel
+	 *            the way the connections are served
+	 */
+	public void setThreadModel(ThreadModel threadModel) {
+		if (serverUp) {
+			throw new IllegalStateException("The server has already started");
+		}
+		this.threadModel = threadModel;
 	}
 
 	/**
-	 * Builds the GUI for the server
-	 */
-	private void buildGUI() {
-		// build a GUI
-		frame = new JFrame(serverName);
-		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-		textArea = new JTextArea(20, 40);
-		textArea.setEditable(false);
-		textArea.setLineWrap(true);
-		textArea.setWrapStyleWord(true);
-		JScrollPane scroller = new JScrollPane(textArea);
-		scroller.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
-		scroller.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
-		frame.add(scroller);
-
-		// build the menu bar
-		JMenuItem clearMenuItem = new JMenuItem("Clear console");
-		clearMenuItem.addActionListener(new ClearMenuItemListener());
-		JMenuItem quitMenuItem = new JMenuItem("Quit");
-		quitMenuItem.addActionListener(new QuitMenuItemListener());
-		JMenu menu = new JMenu("Option");
-		menu.add(clearMenuItem);
-		menu.add(quitMenuItem);
-		JMenuBar menuBar = new JMenuBar();
-		menuBar.add(menu);
-		frame.setJMenuBar(menuBar);
-
-		frame.pack();
-		frame.setVisible(true);
-	} // buildGUI
+	 * Returns the way the connections are served.
+	 * 
+	 * @return the way the connections are served
+	 */
+	public ThreadModel getThreadModel() {
+		return threadModel;
+	}
 
 	/**
 	 * Starts the server at the specified port
@@ -106,252 +245,371 @@ public class CardGameServer {
 	public void start(int port) {
 		// start the server
 		try {
-			// creates a ServerScoket
-			ServerSocket serverSocket = new ServerSocket(port);
+			serverChannel = ServerSocketChannel.open();
+			serverChannel.bind(new InetSocketAddress(port));
+			if (threadModel == ThreadModel.VIRTUAL
+					&& !ThreadModel.isVirtualThreadSupported()) {
+				log(ServerLog.Level.WARN, "Virtual threads are not supported: uses platform threads instead");
+			}
 			println("Starts up the server at localhost:"
-					+ serverSocket.getLocalPort());
+					+ serverChannel.socket().getLocalPort() + " ("
+					+ threadModel + " threads)");
 			serverUp = true;
-			while (serverUp) {
-				// waits for clients to connect
-				Socket clientSocket = serverSocket.accept();
-				addConnection(clientSocket);
-			} // while
-			serverSocket.close();
+			try {
+				metrics.registerMBean(serverName);
+			} catch (Exception ex) {
+				log(ServerLog.Level.WARN, "Error in registering the metrics with JMX");
+				if (!silentMode) ex.printStackTrace();
+			}
+			if (threadModel.isBlocking()) {
+				acceptConnections(serverChannel);
+			} else {
+				selectConnections(serverChannel);
+			}
 		} catch (Exception ex) {
-			println("Error in starting up the server at localhost:" + port);
+			log(ServerLog.Level.ERROR, "Error in starting up the server at localhost:" + port);
 			if (!silentMode) ex.printStackTrace();
 		}
 	} // start
 
 	/**
-	 * Parses the incoming message from the specified client.
+	 * Accepts the connections with blocking I/O and serves each of them with
+	 * its own tasks run by the executor.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the specified client
-	 * @param message
-	 *            the message received from the specified client
+	 * @param serverChannel
+	 *            the channel accepting the connections
+	 * @throws IOException
+	 *             if the connections cannot be accepted
 	 */
-	private synchronized void parseMessage(Socket clientSocket,
-			CardGameMessage message) {
-		// updates the playerID
-		for (int i = 0; i < maxNumOfPlayers; i++) {
-			if (clientSockets[i] == clientSocket) {
-				message.setPlayerID(i);
-				break;
-			}
-		}
-
-		// parses the message based on it type
-		switch (message.getType()) {
-		case CardGameMessage.JOIN:
-			// adds a player to the game
-			addPlayer(clientSocket, (String) message.getData());
-			break;
-		case CardGameMessage.READY:
-			// marks the specified player as ready for a new game
-			setReadyState(clientSocket);
-			break;
-		case CardGameMessage.MOVE:
-			println("Broadcasts a \"MOVE\" message from "
-					+ clientSocket.getRemoteSocketAddress());
-			// broadcast the MOVE message to all clients
-			broadcastMessage(message);
-			break;
-		case CardGameMessage.MSG:
-			println("Broadcasts a user message from "
-					+ clientSocket.getRemoteSocketAddress());
-			// broadcast the user message to all clients
-			broadcastUserMessage(clientSocket, (String) message.getData());
-			break;
-		default:
-			println("Wrong message type: " + message.getType());
-			// invalid message
-			break;
+	private void acceptConnections(ServerSocketChannel serverChannel)
+			throws IOException {
+		executor = threadModel.newExecutor(serverName);
+		while (serverUp) {
+			// waits for a connection
+			SocketChannel channel;
+			try {
+				channel = serverChannel.accept();
+			} catch (ClosedChannelException ex) {
+				if (shuttingDown) {
+					// the connections are closed by stop()
+					break;
+				}
+				throw ex;
+			}
+			addConnection(channel);
 		}
-	} // parseMessage
+		serverChannel.close();
+	} // acceptConnections
 
 	/**
-	 * Broadcasts the specified message to all clients.
+	 * Serves all the connections with non-blocking I/O in the calling thread.
 	 * 
-	 * @param message
-	 *            the specified message to be broadcast to all clients
-	 */
-	private synchronized void broadcastMessage(CardGameMessage message) {
-		if (numOfPlayers > 0) {
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] != null && clientOutputStreams[i] != null) {
-					try {
-						clientOutputStreams[i].writeObject(message);
-					} catch (Exception ex) {
-						println("Error in broadcasting a message to the client at "
-								+ clientSockets[i].getRemoteSocketAddress());
-						if (!silentMode) ex.printStackTrace();
+	 * @param serverChannel
+	 *            the channel accepting the connections
+	 * @throws IOException
+	 *             if the connections cannot be served
+	 */
+	private void selectConnections(ServerSocketChannel serverChannel)
+			throws IOException {
+		// registers the non-blocking ServerSocketChannel with the selector
+		selector = Selector.open();
+		serverChannel.configureBlocking(false);
+		serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		while (serverUp) {
+			// waits for connections, incoming messages, or room in the
+			// send buffers of the clients
+			selector.select();
+			// removes the connections disconnected while sending to them
+			ClientConnection closedConnection;
+			while ((closedConnection = pendingCloses.poll()) != null) {
+				closedConnection.close();
+			}
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				if (!key.isValid()) {
+					continue;
+				}
+				if (key.isAcceptable()) {
+					SocketChannel channel = serverChannel.accept();
+					if (channel != null) {
+						addConnection(channel);
 					}
+					continue;
+				}
+				ClientConnection connection = (ClientConnection) key.attachment();
+				if (key.isReadable()) {
+					connection.read();
+				}
+				if (key.isValid() && key.isWritable()) {
+					connection.flush();
 				}
 			}
-		}
-	} // broadcastMessage
+		} // while
+		serverChannel.close();
+		selector.close();
+	} // selectConnections
 
 	/**
-	 * Adds a new socket connection to the server
+	 * Shuts down the server: stops accepting connections and starting new
+	 * games, waits for the games in progress to end (for at most the
+	 * specified time), then closes all the connections.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to be added to the server
+	 * @param timeoutMillis
+	 *            the maximum time to wait for the games in progress, in
+	 *            milliseconds
 	 */
-	private synchronized void addConnection(Socket clientSocket) {
-		// adds this connection to the server if the server is not full
-		if (numOfPlayers < maxNumOfPlayers) {
-			// locates the first empty slot for the new connection
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == null) {
-					try {
-						// creates an ObjectOutputStream for this client socket
-						ObjectOutputStream oostream = new ObjectOutputStream(
-								clientSocket.getOutputStream());
-
-						clientSockets[i] = clientSocket;
-						clientOutputStreams[i] = oostream;
-						clientNames[i] = null;
-						clientReadyStates[i] = false;
-						numOfPlayers++;
-						println("Establishes a connection with a client at "
-								+ clientSocket.getRemoteSocketAddress());
-
-						// creates a thread for receiving messages from this
-						// client
-						Thread t = new Thread(new ClientHandler(clientSocket));
-						t.start();
-
-						// sends the player list to the new player
-						oostream.writeObject(new CardGameMessage(
-								CardGameMessage.PLAYER_LIST, i, clientNames));
-					} catch (Exception ex) {
-						println("Error in establishing a connection with a client at "
-								+ clientSocket.getRemoteSocketAddress());
-						if (!silentMode) ex.printStackTrace();
-					}
-					break;
-				}
-			} // for
-		} else {
-			// Max. no. of players reached
-			println("Server is full: cannot establish a connection with a client at "
-					+ clientSocket.getRemoteSocketAddress());
+	public void stop(long timeoutMillis) {
+		synchronized (connections) {
+			if (shuttingDown) {
+				return;
+			}
+			shuttingDown = true;
+		}
+		println("Shuts down the server: waits for the games in progress");
+		try {
+			if (serverChannel != null) {
+				serverChannel.close();
+			}
+		} catch (IOException ex) {
+			if (!silentMode) ex.printStackTrace();
+		}
+		if (selector != null) {
+			selector.wakeup();
+		}
 
-			// creates a thread for sending a FULL message to this client, waits
-			// for 1000 milliseconds and closes the socket
-			Thread t = new Thread(new ClientHandler2(clientSocket));
-			t.start();
+		// waits for the games in progress to end
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		try {
+			while (getNumOfGamesInProgress() > 0
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(100);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		int numOfGames = getNumOfGamesInProgress();
+		if (numOfGames > 0) {
+			log(ServerLog.Level.WARN, "Abandons " + numOfGames
+					+ " games still in progress");
 		}
 
-	} // addConnection
+		// closes all the connections
+		serverUp = false;
+		for (ClientConnection clientConnection : connections) {
+			clientConnection.close();
+		}
+		if (selector != null) {
+			selector.wakeup();
+		}
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		synchronized (this) {
+			if (scheduler != null) {
+				scheduler.shutdownNow();
+			}
+		}
+		metrics.stopReporting();
+		metrics.unregisterMBean();
+		println("The server is shut down");
+	} // stop
 
 	/**
-	 * Removes a connection from the server (possibly due to connection loss).
+	 * Returns true if the server is shutting down, in which case no new game
+	 * is started.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection being removed from the server
-	 */
-	private synchronized void removeConnection(Socket clientSocket) {
-		if (numOfPlayers > 0) {
-			// locates the client socket in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					String name = clientNames[i];
-
-					clientSockets[i] = null;
-					clientOutputStreams[i] = null;
-					clientNames[i] = null;
-					clientReadyStates[i] = false;
-					numOfPlayers--;
-
-					println(name + " (" + clientSocket.getRemoteSocketAddress()
-							+ ") leaves the game.");
-
-					String remoteAddress = clientSocket
-							.getRemoteSocketAddress().toString();
-
-					// broadcasts a message about the leaving of this player
-					broadcastMessage(new CardGameMessage(CardGameMessage.QUIT,
-							i, remoteAddress));
-					break;
-				}
+	 * @return true if the server is shutting down; otherwise false
+	 */
+	public boolean isShuttingDown() {
+		return shuttingDown;
+	}
+
+	/**
+	 * Returns true if the server has started up and is accepting connections.
+	 *
+	 * @return true if the server is up; otherwise false
+	 */
+	public boolean isServerUp() {
+		return serverUp;
+	}
+
+	/**
+	 * Returns the number of rooms in which at least one client is seated.
+	 * 
+	 * @return the number of rooms in use
+	 */
+	public int getNumOfActiveRooms() {
+		int numOfRooms = 0;
+		for (GameRoom room : rooms) {
+			if (room.getNumOfConnections() > 0) {
+				numOfRooms++;
 			}
 		}
-	} // removeConnection
+		return numOfRooms;
+	}
 
 	/**
-	 * adds a player to the game.
+	 * Returns the number of rooms with a game in progress.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the player who is joining the game
-	 * @param name
-	 *            the name of the player who is joining the game
-	 */
-	private synchronized void addPlayer(Socket clientSocket, String name) {
-		if (numOfPlayers > 0) {
-			// locates the client socket in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					// updates the name of the new player
-					clientNames[i] = name;
-
-					println(name + " (" + clientSocket.getRemoteSocketAddress()
-							+ ") joins the game.");
-
-					// broadcasts a message about this player joining the game
-					broadcastMessage(new CardGameMessage(CardGameMessage.JOIN,
-							i, name));
-					break;
-				}
+	 * @return the number of rooms with a game in progress
+	 */
+	public int getNumOfGamesInProgress() {
+		int numOfGames = 0;
+		for (GameRoom room : rooms) {
+			if (room.isGameInProgress()) {
+				numOfGames++;
 			}
 		}
-	} // addPlayer
+		return numOfGames;
+	}
 
 	/**
-	 * Marks the specified player as ready for a new game.
+	 * Parses the incoming message from the specified client by passing it to
+	 * the room of the client.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the player who becomes ready for a
-	 *            new game
-	 */
-	private synchronized void setReadyState(Socket clientSocket) {
-		if (numOfPlayers > 0) {
-			// locates the client socket in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					clientReadyStates[i] = true;
-					println(clientNames[i] + " ("
-							+ clientSocket.getRemoteSocketAddress()
-							+ " ) is ready for the next game.");
-					broadcastMessage(new CardGameMessage(CardGameMessage.READY,
-							i, null));
-					break;
-				}
+	 * @param clientConnection
+	 *            the connection to the specified client
+	 * @param message
+	 *            the message received from the specified client
+	 */
+	private void parseMessage(ClientConnection clientConnection,
+			CardGameMessage message) {
+		GameRoom room = clientConnection.getRoom();
+		if (room != null) {
+			long start = System.nanoTime();
+			synchronized (room) {
+				metrics.getLockWait().record(System.nanoTime() - start);
+				room.parseMessage(clientConnection, message);
 			}
 		}
+	} // parseMessage
 
-		// checks if all players are ready
-		if (numOfPlayers == maxNumOfPlayers) {
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientReadyStates[i] == false) {
-					// returns if any of the players is not ready
-					return;
+	/**
+	 * Adds a new socket connection to the server
+	 * 
+	 * @param channel
+	 *            the socket connection to be added to the server
+	 */
+	private void addConnection(SocketChannel channel) {
+		ClientConnection clientConnection;
+		try {
+			// registers this connection with the selector for reading
+			clientConnection = new ClientConnection(channel);
+		} catch (Exception ex) {
+			log(ServerLog.Level.WARN, "Error in establishing a connection with a client");
+			if (!silentMode) ex.printStackTrace();
+			try {
+				channel.close();
+			} catch (IOException ioe) {
+				if (!silentMode) ioe.printStackTrace();
+			}
+			return;
+		}
+		connections.add(clientConnection);
+
+		// adds this connection to the first room with an empty slot, creating
+		// a new room if all the rooms are full
+		boolean seated = false;
+		synchronized (rooms) {
+			for (GameRoom room : rooms) {
+				if (room.addConnection(clientConnection) >= 0) {
+					seated = true;
+					break;
 				}
 			}
+			if (!seated && rooms.size() < maxNumOfRooms) {
+				GameRoom room = createRoom(rooms.size());
+				rooms.add(room);
+				seated = room.addConnection(clientConnection) >= 0;
+			}
+		}
 
-			// resets the ready states of all the players for the next game
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				clientReadyStates[i] = false;
+		if (!seated) {
+			// Max. no. of players reached in all the rooms
+			log(ServerLog.Level.WARN, "Server is full: cannot establish a connection with a client at "
+					+ clientConnection.getRemoteAddress());
+
+			// sends a FULL message to this client and closes the connection
+			// once the message has been sent
+			try {
+				clientConnection.send(codec.encode(
+						new CardGameMessage(CardGameMessage.FULL, -1, null)));
+			} catch (Exception ex) {
+				log(ServerLog.Level.WARN, "Error in sending a FULL message to the client at "
+						+ clientConnection.getRemoteAddress());
+				if (!silentMode) ex.printStackTrace();
 			}
+			clientConnection.closeAfterFlush();
+		}
 
-			// creates a new deck, shuffles the deck, and starts a new game
-			Deck deck = createDeck();
-			deck.shuffle();
-			println("All players are ready. Game starts.");
-			broadcastMessage(new CardGameMessage(CardGameMessage.START, -1,
-					deck));
+		if (threadModel.isBlocking()) {
+			// serves the connection with its own tasks
+			executor.execute(clientConnection::serve);
 		}
+	} // addConnection
+
+	/**
+	 * Removes a connection from the server (possibly due to connection loss).
+	 * 
+	 * @param clientConnection
+	 *            the connection being removed from the server
+	 */
+	private void removeConnection(ClientConnection clientConnection) {
+		connections.remove(clientConnection);
+		GameRoom room = clientConnection.getRoom();
+		if (room != null) {
+			room.removeConnection(clientConnection);
+		}
+	} // removeConnection
+
+	/**
+	 * Returns the number of open client connections.
+	 * 
+	 * @return the number of open client connections
+	 */
+	public int getNumOfConnections() {
+		return connections.size();
+	}
+
+	/**
+	 * Returns the open client connections.
+	 * 
+	 * @return the open client connections
+	 */
+	Iterable<ClientConnection> getConnections() {
+		return connections;
+	}
+
+	/**
+	 * Returns the number of game rooms created so far.
+	 * 
+	 * @return the number of game rooms
+	 */
+	public int getNumOfRooms() {
+		return rooms.size();
+	}
+
+	/**
+	 * Returns the metrics of this server.
+	 * 
+	 * @return the metrics of this server
+	 */
+	public ServerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Creates and returns a game room of this server. Overrides this method if
+	 * a different type of room is needed.
+	 * 
+	 * @param roomID
+	 *            the id of the room
+	 * @return an instance of the GameRoom class
+	 */
+	public GameRoom createRoom(int roomID) {
+		return new GameRoom(this, roomID, maxNumOfPlayers);
 	}
 
 	/**
@@ -364,155 +622,467 @@ public class CardGameServer {
 		return new Deck();
 	}
 
-	private synchronized void broadcastUserMessage(Socket clientSocket,
-			String msg) {
-		if (numOfPlayers > 0) {
-			// locates the client in the array
-			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
-					String longMsg = clientNames[i] + " ("
-							+ clientSocket.getRemoteSocketAddress() + "): "
-							+ msg;
-					broadcastMessage(new CardGameMessage(CardGameMessage.MSG,
-							i, longMsg));
-					break;
-				}
-			}
+	/**
+	 * Returns the log of this server.
+	 * 
+	 * @return the log of this server
+	 */
+	public ServerLog getLog() {
+		return log;
+	}
+
+	/**
+	 * Shows a Swing console displaying the log of this server. The console is
+	 * looked up by name, as it is not shipped with the headless server; if it
+	 * is missing, the log is printed to the standard output instead.
+	 */
+	public void showConsole() {
+		try {
+			Class<?> consoleClass = Class.forName("ServerConsole");
+			log.addListener((ServerLog.Listener) consoleClass
+					.getConstructor(String.class).newInstance(serverName));
+		} catch (ReflectiveOperationException | LinkageError ex) {
+			log.addListener(ServerLog.standardOutput());
+			log(ServerLog.Level.WARN, "No console available: logs to the standard output");
 		}
 	}
 
 	/**
-	 * Prints the specified message to the text area.
+	 * Logs the specified message at the INFO level.
+	 * 
+	 * @param msg
+	 *            the message to be logged
+	 */
+	void println(String msg) {
+		log.info(msg);
+	}
+
+	/**
+	 * Logs the specified message at the specified level.
 	 * 
+	 * @param level
+	 *            the level of the message
 	 * @param msg
+	 *            the message to be logged
 	 */
-	private void println(String msg) {
-		textArea.append(msg + "\n");
-		textArea.setCaretPosition(textArea.getDocument().getLength());
+	void log(ServerLog.Level level, String msg) {
+		log.log(level, msg);
 	}
 
 	/**
-	 * This inner class is used for receiving incoming messages from a client
+	 * This inner class is used for holding a non-blocking connection to a
+	 * client, with its buffer of incoming bytes and its queue of outgoing
+	 * frames
 	 * 
-	 * @author Kenneth Wong
+	 * @author karanvs
 	 *
 	 */
-	private class ClientHandler implements Runnable {
-		private Socket clientSocket; // socket connection to the client
-		private ObjectInputStream oistream; // ObjectInputStream of the client
+	class ClientConnection {
+		private SocketChannel channel; // socket connection to the client
+		private volatile GameRoom room; // the room of the client, or null if not seated
+		private volatile int playerID = -1; // the slot of the client in its room
+		private SelectionKey key; // registration of the channel with the selector
+		private String remoteAddress; // address of the client
+		private ByteBuffer readBuffer = ByteBuffer.allocate(4096); // incoming bytes
+		private ArrayDeque<ByteBuffer> writeQueue = new ArrayDeque<ByteBuffer>(); // outgoing frames
+		private int queuedBytes = 0; // number of bytes left to send in the queue
+		private boolean closeAfterFlush = false; // closes once all frames are sent
+		private boolean closed = false; // whether the connection has been closed
+		private final boolean blocking; // whether the connection uses blocking I/O
 
 		/**
-		 * Creates and returns an instance of the ClientHandler class.
+		 * Creates and returns an instance of the ClientConnection class, and
+		 * registers it with the selector for reading unless the server uses
+		 * blocking I/O.
 		 * 
-		 * @param clientSocket
+		 * @param channel
 		 *            the socket connection to the client
+		 * @throws IOException
+		 *             if the connection cannot be set up
 		 */
-		public ClientHandler(Socket clientSocket) {
-			this.clientSocket = clientSocket;
-			try {
-				// creates an ObjectInputStream and chains it to the InputStream
-				// of the client socket
-				oistream = new ObjectInputStream(clientSocket.getInputStream());
-			} catch (Exception ex) {
-				println("Error in creating an ObjectInputStream for the client at "
-						+ clientSocket.getRemoteSocketAddress());
-				if (!silentMode) ex.printStackTrace();
+		public ClientConnection(SocketChannel channel) throws IOException {
+			this.channel = channel;
+			this.remoteAddress = String.valueOf(channel.getRemoteAddress());
+			this.blocking = threadModel.isBlocking();
+			if (!blocking) {
+				channel.configureBlocking(false);
+				key = channel.register(selector, SelectionKey.OP_READ, this);
 			}
 		} // constructor
 
-		// implementation of method from the Runnable interface
-		public void run() {
-			CardGameMessage message;
+		/**
+		 * Returns the address of the client.
+		 * 
+		 * @return a string representation of the IP address and TCP port of the
+		 *         client
+		 */
+		public String getRemoteAddress() {
+			return remoteAddress;
+		}
+
+		/**
+		 * Returns the room in which the client is seated.
+		 * 
+		 * @return the room of the client, or null if the client is not seated
+		 */
+		public GameRoom getRoom() {
+			return room;
+		}
+
+		/**
+		 * Returns the playerID of the client in its room, so that the room
+		 * finds the slot of the client without searching for it.
+		 * 
+		 * @return the playerID of the client, or -1 if the client is not
+		 *         seated
+		 */
+		public int getPlayerID() {
+			return playerID;
+		}
+
+		/**
+		 * Sets the room and the slot in which the client is seated. Called by
+		 * the room while holding its lock.
+		 * 
+		 * @param room
+		 *            the room of the client, or null if the client leaves
+		 * @param playerID
+		 *            the playerID of the client, or -1 if the client leaves
+		 */
+		void setSeat(GameRoom room, int playerID) {
+			this.room = room;
+			this.playerID = playerID;
+		}
+
+		/**
+		 * Reads the available bytes from the client and parses every complete
+		 * message received.
+		 */
+		public void read() {
 			try {
-				// waits for messages from the client
-				while ((message = (CardGameMessage) oistream.readObject()) != null) {
-					println("Message received from "
-							+ clientSocket.getRemoteSocketAddress());
-					parseMessage(clientSocket, message);
-				} // close while
+				if (channel.read(readBuffer) < 0) {
+					throw new IOException("Connection closed by the client");
+				}
+				readBuffer.flip();
+				while (readBuffer.remaining() >= 4) {
+					int length = readBuffer.getInt(readBuffer.position());
+					if (length < 0 || length > CardGameMessageCodec.MAX_FRAME_LENGTH) {
+						throw new IOException("Invalid frame length: " + length);
+					}
+					if (readBuffer.remaining() < 4 + length) {
+						break;
+					}
+					ByteBuffer body = readBuffer.duplicate();
+					body.position(readBuffer.position() + 4);
+					body.limit(readBuffer.position() + 4 + length);
+					readBuffer.position(readBuffer.position() + 4 + length);
+
+					CardGameMessage message = codec.decode(body);
+					metrics.messageReceived(message.getType(), 4 + length);
+					if (log.isLoggable(ServerLog.Level.DEBUG)) {
+						log.debug("Message received from " + remoteAddress);
+					}
+					parseMessage(this, message);
+				}
+				if (readBuffer.remaining() >= 4) {
+					// grows the buffer if the next frame does not fit in it
+					int frameLength = 4 + readBuffer.getInt(readBuffer.position());
+					if (frameLength > readBuffer.capacity()) {
+						ByteBuffer largerBuffer = ByteBuffer.allocate(frameLength);
+						largerBuffer.put(readBuffer);
+						readBuffer = largerBuffer;
+						return;
+					}
+				}
+				readBuffer.compact();
 			} catch (Exception ex) {
-				println("Error in receiving messages from the client at "
-						+ clientSocket.getRemoteSocketAddress());
+				log(ServerLog.Level.WARN, "Error in receiving messages from the client at "
+						+ remoteAddress);
 				if (!silentMode) ex.printStackTrace();
 				// possible connection loss, removes the connection
-				removeConnection(clientSocket);
+				close();
+			}
+		}
+
+		/**
+		 * Serves the connection with blocking I/O: starts a task writing the
+		 * queued frames, then reads and parses messages until the connection
+		 * is closed.
+		 */
+		public void serve() {
+			executor.execute(this::writeFrames);
+			try {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(
+						Channels.newInputStream(channel)));
+				while (!isClosed()) {
+					ByteBuffer body = codec.readFrame(in);
+					int length = body.remaining();
+					CardGameMessage message = codec.decode(body);
+					metrics.messageReceived(message.getType(), 4 + length);
+					if (log.isLoggable(ServerLog.Level.DEBUG)) {
+						log.debug("Message received from " + remoteAddress);
+					}
+					parseMessage(this, message);
+				}
+			} catch (Exception ex) {
+				if (!isClosed()) {
+					log(ServerLog.Level.WARN, "Error in receiving messages from the client at "
+							+ remoteAddress);
+					if (!silentMode) ex.printStackTrace();
+				}
 			}
-		} // run
-	} // ClientHandler
+			// possible connection loss, removes the connection
+			close();
+		}
 
-	private class ClientHandler2 implements Runnable {
-		private Socket clientSocket; // socket connection to the client
+		// writes the queued frames with blocking writes until the connection
+		// is closed (the frames are taken from the queue in batches and written
+		// outside the lock, so a slow client only blocks this task)
+		private void writeFrames() {
+			ByteBuffer[] frames = new ByteBuffer[64];
+			try {
+				while (true) {
+					int count = 0;
+					synchronized (this) {
+						while (writeQueue.isEmpty() && !closeAfterFlush && !closed) {
+							wait();
+						}
+						if (writeQueue.isEmpty() || closed) {
+							break;
+						}
+						while (count < frames.length && !writeQueue.isEmpty()) {
+							frames[count++] = writeQueue.poll();
+						}
+					}
+					// writes the batch with gathering writes
+					int first = 0;
+					while (first < count) {
+						long length = channel.write(frames, first, count - first);
+						synchronized (this) {
+							queuedBytes -= length;
+						}
+						while (first < count && !frames[first].hasRemaining()) {
+							frames[first++] = null;
+						}
+					}
+				}
+			} catch (Exception ex) {
+				if (!isClosed()) {
+					log(ServerLog.Level.WARN, "Error in sending messages to the client at "
+							+ remoteAddress);
+					if (!silentMode) ex.printStackTrace();
+				}
+			}
+			close();
+		}
 
 		/**
-		 * Creates and returns an instance of the ClientHandler2 class.
+		 * Queues the specified frame for sending to the client and sends as
+		 * much of the queue as the socket accepts without blocking. The
+		 * position of the frame is advanced as it is sent, so a frame shared
+		 * by several clients has to be passed as a duplicate to each of them.
+		 * If the queue is full, the overflow policy of the server is applied.
 		 * 
-		 * @param clientSocket
-		 *            the socket connection to the client
+		 * @param frame
+		 *            the frame to be sent
 		 */
-		public ClientHandler2(Socket clientSocket) {
-			this.clientSocket = clientSocket;
-		} // constructor
+		public void send(ByteBuffer frame) {
+			boolean overflow;
+			synchronized (this) {
+				if (!channel.isOpen() || closeAfterFlush) {
+					return;
+				}
+				overflow = !enqueue(frame);
+			}
+			if (overflow) {
+				metrics.slowClientDisconnected();
+				log(ServerLog.Level.WARN, "Outbound queue full: disconnecting the client at "
+						+ remoteAddress);
+				disconnect();
+			} else if (blocking) {
+				flush();
+			} else if (writeQueuedFrames()) {
+				disconnect();
+			}
+		}
 
-		// implementation of method from the Runnable interface
-		public void run() {
+		// closes the socket at once, but leaves the removal of the connection
+		// from its room to the selector thread (or to the tasks serving the
+		// connection with blocking I/O, which fail once the socket is closed):
+		// the caller may be in the middle of a broadcast of the room, holding
+		// its lock, and the room would broadcast the leaving of the client
+		// (or even start a game) before the rest of the broadcast
+		private void disconnect() {
+			synchronized (this) {
+				if (closed || !channel.isOpen()) {
+					return;
+				}
+				// wakes up the task writing the queued frames
+				notifyAll();
+			}
 			try {
-				// creates an ObjectOutputStream and chains it to the
-				// OutputStream
-				// of the client socket
-				ObjectOutputStream oostream = new ObjectOutputStream(
-						clientSocket.getOutputStream());
-				// sends a FULL message to the client
-				oostream.writeObject(new CardGameMessage(CardGameMessage.FULL,
-						-1, null));
-				oostream.flush();
+				if (key != null) {
+					key.cancel();
+				}
+				channel.close();
 			} catch (Exception ex) {
-				println("Error in sending a FULL message to the client at "
-						+ clientSocket.getRemoteSocketAddress());
+				log(ServerLog.Level.WARN, "Error in closing the client socket at "
+						+ remoteAddress);
 				if (!silentMode) ex.printStackTrace();
 			}
+			if (!blocking) {
+				pendingCloses.add(this);
+				selector.wakeup();
+			}
+		}
+
+		// queues the frame as per the overflow policy and returns false if the
+		// client has to be disconnected
+		private synchronized boolean enqueue(ByteBuffer frame) {
+			if (queuedBytes + frame.remaining() > maxQueuedBytes) {
+				switch (overflowPolicy) {
+				case DROP:
+					metrics.messageDropped();
+					log(ServerLog.Level.WARN, "Outbound queue full: dropping a message to the client at "
+							+ remoteAddress);
+					return true;
+				case COALESCE:
+					discardQueuedChatMessages();
+					if (queuedBytes + frame.remaining() <= maxQueuedBytes) {
+						break;
+					}
+					if (isChatMessage(frame)) {
+						metrics.messageDropped();
+						return true;
+					}
+					return false;
+				default:
+					return false;
+				}
+			}
+			writeQueue.add(frame);
+			queuedBytes += frame.remaining();
+			metrics.messageSent(frame.get(frame.position() + 4), frame.remaining());
+			return true;
+		}
+
+		// discards the queued chat messages which have not been partly sent
+		private void discardQueuedChatMessages() {
+			Iterator<ByteBuffer> frames = writeQueue.iterator();
+			// the first frame may have been partly sent already
+			if (frames.hasNext()) {
+				frames.next();
+			}
+			while (frames.hasNext()) {
+				ByteBuffer frame = frames.next();
+				if (isChatMessage(frame)) {
+					queuedBytes -= frame.remaining();
+					frames.remove();
+					metrics.messageDropped();
+				}
+			}
+		}
+
+		// returns true if the (unsent) frame holds a chat message
+		private boolean isChatMessage(ByteBuffer frame) {
+			return frame.remaining() > 4
+					&& frame.get(frame.position() + 4) == CardGameMessage.MSG;
+		}
+
+		/**
+		 * Sends the queued frames until the queue is empty or the send buffer
+		 * of the socket is full, in which case the selector reports when the
+		 * socket is writable again. With blocking I/O, wakes up the task
+		 * writing the queued frames instead.
+		 */
+		public void flush() {
+			if (blocking) {
+				synchronized (this) {
+					notifyAll();
+				}
+			} else if (writeQueuedFrames()) {
+				close();
+			}
+		}
 
-			// sleeps for 1000 milliseconds before closing the socket
+		/**
+		 * Closes the connection once all the queued frames have been sent.
+		 */
+		public void closeAfterFlush() {
+			synchronized (this) {
+				closeAfterFlush = true;
+			}
+			flush();
+		}
+
+		// writes the queued frames and returns true if the connection has to
+		// be closed (the connection is not closed while holding its lock, as
+		// closing it locks the server)
+		private synchronized boolean writeQueuedFrames() {
 			try {
-				Thread.sleep(1000);
+				while (!writeQueue.isEmpty()) {
+					ByteBuffer frame = writeQueue.peek();
+					queuedBytes -= channel.write(frame);
+					if (frame.hasRemaining()) {
+						break;
+					}
+					writeQueue.poll();
+				}
+				if (writeQueue.isEmpty()) {
+					if (closeAfterFlush) {
+						return true;
+					}
+					key.interestOps(SelectionKey.OP_READ);
+				} else {
+					key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+					selector.wakeup();
+				}
+				return false;
 			} catch (Exception ex) {
-				println("Error in sleeping before closing the client socket at "
-						+ clientSocket.getRemoteSocketAddress());
+				log(ServerLog.Level.WARN, "Error in sending messages to the client at "
+						+ remoteAddress);
 				if (!silentMode) ex.printStackTrace();
+				return true;
 			}
+		}
 
-			// closes the socket
+		/**
+		 * Closes the connection and removes it from the server.
+		 */
+		public void close() {
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				// wakes up the task writing the queued frames
+				notifyAll();
+			}
 			try {
-				clientSocket.close();
+				if (key != null) {
+					key.cancel();
+				}
+				channel.close();
 			} catch (Exception ex) {
-				println("Error in closing the client socket at "
-						+ clientSocket.getRemoteSocketAddress());
+				log(ServerLog.Level.WARN, "Error in closing the client socket at "
+						+ remoteAddress);
 				if (!silentMode) ex.printStackTrace();
 			}
-		} // run
-	} // ClientHandler2
+			removeConnection(this);
+		}
 
-	/**
-	 * This inner class is used for handling the Clear menu
-	 * 
-	 * @author Kenneth Wong
-	 *
-	 */
-	private class ClearMenuItemListener implements ActionListener {
-		public void actionPerformed(ActionEvent e) {
-			textArea.setText("");
+		/**
+		 * Returns the number of bytes waiting in the outbound queue.
+		 * 
+		 * @return the number of bytes waiting to be sent to the client
+		 */
+		public synchronized int getQueuedBytes() {
+			return queuedBytes;
 		}
-	} // ClearMenuItemListener
 
-	/**
-	 * This inner class is used for handling the Quit menu
-	 * 
-	 * @author Kenneth Wong
-	 *
-	 */
-	private class QuitMenuItemListener implements ActionListener {
-		public void actionPerformed(ActionEvent e) {
-			frame.dispose();
-			System.exit(0);
+		// returns true if the connection has been closed
+		private synchronized boolean isClosed() {
+			return closed;
 		}
-	} // QuitMenuItemListener
+	} // ClientConnection
 }
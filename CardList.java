@@ -9,6 +9,10 @@ import java.util.ArrayList;
 public class CardList implements Serializable {
 	private static final long serialVersionUID = -3711761437629470849L;
 	private ArrayList<Card> cards = new ArrayList<Card>();
+	// the cards in this list as a card set (see CardSet); a list is assumed to
+	// hold at most one copy of each card, as all cards come from a single deck,
+	// and a null card (which setCard() may store) has no bit in the set
+	private long cardMask = CardSet.EMPTY;
 
 	/**
 	 * Appends the specified card to the end of this list.
@@ -18,6 +22,7 @@ public class CardList implements Serializable {
 	public void addCard(Card card) {
 		if (card != null) {
 			cards.add(card);
+			cardMask = CardSet.add(cardMask, card);
 		}
 	}
 
@@ -46,7 +51,11 @@ public class CardList implements Serializable {
 	 */
 	public Card removeCard(int i) {
 		if (i >= 0 && i < cards.size()) {
-			return cards.remove(i);
+			Card card = cards.remove(i);
+			if (card != null) {
+				cardMask = CardSet.remove(cardMask, card);
+			}
+			return card;
 		} else {
 			return null;
 		}
@@ -62,6 +71,13 @@ public class CardList implements Serializable {
 	 * @return true if this list contained the specified card; otherwise false
 	 */
 	public boolean removeCard(Card card) {
+		if (card == null) {
+			return cards.remove(card);
+		}
+		if (!CardSet.contains(cardMask, card)) {
+			return false;
+		}
+		cardMask = CardSet.remove(cardMask, card);
 		return cards.remove(card);
 	}
 
@@ -69,7 +85,9 @@ public class CardList implements Serializable {
 	 * Removes all cards from this list.
 	 */
 	public void removeAllCards() {
-		cards = new ArrayList<Card>();
+		// keeps the capacity of the list, so a deck can be dealt again without allocating
+		cards.clear();
+		cardMask = CardSet.EMPTY;
 	}
 
 	/**
@@ -77,18 +95,38 @@ public class CardList implements Serializable {
 	 * card.
 	 * 
 	 * @param i    the index of the card to be replaced
-	 * @param card the card to be stored at the specified position
+	 * @param card the card to be stored at the specified position, which may be
+	 *             null
 	 * @return the card previously stored at the specified position, or null if the
 	 *         index is invalid
 	 */
 	public Card setCard(int i, Card card) {
 		if (i >= 0 && i < cards.size()) {
-			return cards.set(i, card);
+			Card oldCard = cards.set(i, card);
+			if (oldCard != null) {
+				cardMask = CardSet.remove(cardMask, oldCard);
+			}
+			if (card != null) {
+				cardMask = CardSet.add(cardMask, card);
+			}
+			return oldCard;
 		} else {
 			return null;
 		}
 	}
 
+	/**
+	 * Swaps the cards at the specified positions in this list.
+	 * 
+	 * @param i the index of one card to be swapped
+	 * @param j the index of the other card to be swapped
+	 */
+	public void swapCards(int i, int j) {
+		if (i >= 0 && i < cards.size() && j >= 0 && j < cards.size()) {
+			cards.set(i, cards.set(j, cards.get(i)));
+		}
+	}
+
 	/**
 	 * Returns true if this list contains the specified card.
 	 * 
@@ -96,7 +134,27 @@ public class CardList implements Serializable {
 	 * @return true if this list contains the specified card; otherwise false
 	 */
 	public boolean contains(Card card) {
-		return cards.contains(card);
+		return CardSet.contains(cardMask, card);
+	}
+
+	/**
+	 * Returns true if this list contains all the cards in the specified list.
+	 * 
+	 * @param list the list of cards whose presence in this list is to be tested
+	 * @return true if this list contains all the specified cards; otherwise false
+	 */
+	public boolean containsAll(CardList list) {
+		return CardSet.containsAll(cardMask, list.cardMask);
+	}
+
+	/**
+	 * Returns the cards in this list as a card set, with one bit for each card (see
+	 * CardSet).
+	 * 
+	 * @return the card set containing the cards in this list
+	 */
+	public long getCardMask() {
+		return cardMask;
 	}
 
 	/**
@@ -0,0 +1,132 @@
+/**
+ * This class is used to operate on a set of cards represented as a 64-bit mask,
+ * with one bit for each of the 52 cards of a standard deck. The bit of a card
+ * is given by its ordinal (suit * 13 + rank), which is the same order in which
+ * a new Deck is initialized.
+ *
+ * @author karanvs
+ */
+public final class CardSet {
+	/**
+	 * The number of cards (and bits in use) in a card set.
+	 */
+	public static final int NUM_OF_CARDS = 52;
+	/**
+	 * A card set containing no cards.
+	 */
+	public static final long EMPTY = 0L;
+	/**
+	 * A card set containing all 52 cards.
+	 */
+	public static final long FULL_DECK = (1L << NUM_OF_CARDS) - 1;
+
+	private CardSet() {
+	}
+
+	/**
+	 * Returns the ordinal of the card with the specified suit and rank.
+	 *
+	 * @param suit an int value between 0 and 3 representing the suit of a card
+	 * @param rank an int value between 0 and 12 representing the rank of a card
+	 * @return an int value between 0 and 51 representing the card
+	 */
+	public static int ordinal(int suit, int rank) {
+		return suit * 13 + rank;
+	}
+
+	/**
+	 * Returns the ordinal of the specified card.
+	 *
+	 * @param card the card whose ordinal is to be returned
+	 * @return an int value between 0 and 51 representing the card
+	 */
+	public static int ordinal(Card card) {
+		return ordinal(card.suit, card.rank);
+	}
+
+	/**
+	 * Returns the card set containing only the card with the specified ordinal.
+	 *
+	 * @param ordinal an int value between 0 and 51 representing a card
+	 * @return the card set containing only the specified card
+	 */
+	public static long bit(int ordinal) {
+		return 1L << ordinal;
+	}
+
+	/**
+	 * Returns the card set containing only the specified card.
+	 *
+	 * @param card the card to be contained in the card set
+	 * @return the card set containing only the specified card
+	 */
+	public static long bit(Card card) {
+		return 1L << ordinal(card);
+	}
+
+	/**
+	 * Returns true if the card set contains the specified card.
+	 *
+	 * @param set  the card set to be tested
+	 * @param card the card whose presence in the card set is to be tested
+	 * @return true if the card set contains the specified card; otherwise false
+	 */
+	public static boolean contains(long set, Card card) {
+		return card != null && (set & bit(card)) != 0;
+	}
+
+	/**
+	 * Returns true if the card set contains all the cards of the specified subset.
+	 *
+	 * @param set    the card set to be tested
+	 * @param subset the cards whose presence in the card set is to be tested
+	 * @return true if the card set contains all the cards of the subset; otherwise
+	 *         false
+	 */
+	public static boolean containsAll(long set, long subset) {
+		return (set & subset) == subset;
+	}
+
+	/**
+	 * Returns the card set with the specified card added.
+	 *
+	 * @param set  the card set
+	 * @param card the card to be added
+	 * @return the card set with the specified card added
+	 */
+	public static long add(long set, Card card) {
+		return set | bit(card);
+	}
+
+	/**
+	 * Returns the card set with the specified card removed.
+	 *
+	 * @param set  the card set
+	 * @param card the card to be removed
+	 * @return the card set with the specified card removed
+	 */
+	public static long remove(long set, Card card) {
+		return set & ~bit(card);
+	}
+
+	/**
+	 * Returns the union of the two card sets.
+	 *
+	 * @param set1 the first card set
+	 * @param set2 the second card set
+	 * @return the card set containing the cards of both card sets
+	 */
+	public static long union(long set1, long set2) {
+		return set1 | set2;
+	}
+
+	/**
+	 * Returns the number of cards in the card set.
+	 *
+	 * @param set the card set
+	 * @return the number of cards in the card set
+	 */
+	public static int size(long set) {
+		return Long.bitCount(set);
+	}
+}
@@ -1,3 +1,7 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
 /**
  * This class is used to represent a deck of cards in general card games.
  * 
@@ -20,22 +24,55 @@ public class Deck extends CardList {
 		removeAllCards();
 		for (int i = 0; i < 4; i++) {
 			for (int j = 0; j < 13; j++) {
-				Card card = new Card(i, j);
-				addCard(card);
+				addCard(cardOf(i, j));
 			}
 		}
 	}
 
 	/**
-	 * Shuffles the deck of cards.
+	 * Returns the card with the specified suit and rank used in this deck.
+	 * Overrides this method if a different type of card is needed.
+	 * 
+	 * @param suit an int value between 0 and 3 representing the suit of a card
+	 * @param rank an int value between 0 and 12 representing the rank of a card
+	 * @return the canonical instance of the card
+	 */
+	public Card cardOf(int suit, int rank) {
+		return Card.valueOf(suit, rank);
+	}
+
+	/**
+	 * Shuffles the deck of cards with the random generator of the calling
+	 * thread, so concurrent shuffles do not contend.
 	 */
 	public void shuffle() {
-		for (int i = 0; i < this.size(); i++) {
-			int j = (int) (Math.random() * this.size());
+		shuffle(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Shuffles the deck of cards with the specified random generator. Every
+	 * order of the cards is equally likely (Fisher-Yates shuffle).
+	 * 
+	 * @param random the random generator used
+	 */
+	public void shuffle(RandomGenerator random) {
+		for (int i = this.size() - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
 			if (i != j) {
-				Card card = setCard(i, getCard(j));
-				setCard(j, card);
+				swapCards(i, j);
 			}
 		}
 	}
+
+	/**
+	 * Initializes the deck of cards and shuffles it with a random generator
+	 * created with the specified seed, so the same seed always gives the
+	 * same order of the cards.
+	 * 
+	 * @param seed the seed of the shuffle
+	 */
+	public void shuffle(long seed) {
+		initialize();
+		shuffle(new SplittableRandom(seed));
+	}
 }
@@ -14,31 +14,6 @@ public class Flush extends Hand {
 		super(player, cards);
 	}
 	
-	/**
-	 * a method for checking if this Flush hand beats a specified hand
-	 * @param hand The hand of cards we are comparing against
-	 * @return boolean value specifying if current hand beats the provided hand
-	 */
-	public boolean beats(Hand hand) {
-		if (hand == null || !hand.isValid() || !this.isValid() || hand.size() != this.size()) {
-			return false;
-		}
-		String handType = hand.getType();
-		if (handType == "Straight") {
-			return true;
-		} else if (handType == "FullHouse" || handType == "Quad" || handType == "StraightFlush") {
-			return false;
-		}
-		// compare the suit
-		if (this.getTopCard().suit > hand.getTopCard().suit) {
-			return true;
-		} else if (this.getTopCard().suit < hand.getTopCard().suit) {
-			return false;
-		}
-		// if hands have same suit, compare rank of their top cards
-		return (this.getTopCard().compareTo(hand.getTopCard()) > 0);
-	}
-	
 	/**
 	 * a method for checking if this is a valid Flush hand
 	 * @return boolean value specifying if Flush hand is valid
@@ -63,4 +38,12 @@ public class Flush extends Hand {
 	public String getType() {
 		return "Flush";
 	}
+	
+	/**
+	 * a method for returning the category of this hand
+	 * @return int value specifying the category of this hand
+	 */
+	public int getCategory() {
+		return BigTwoHandClassifier.FLUSH;
+	}
 }
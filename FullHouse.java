@@ -20,7 +20,6 @@ public class FullHouse extends Hand {
 	 */
 	public Card getTopCard() {
 		if (!this.isEmpty()) {
-			this.sort();
 			int rank1 = -1, rank2 = -1;
 			int counter1 = 0, counter2 = 0;
 			
@@ -47,25 +46,6 @@ public class FullHouse extends Hand {
 		}
 	}
 	
-	/**
-	 * a method for checking if this Full House hand beats a specified hand
-	 * @param hand The hand of cards we are comparing against
-	 * @return boolean value specifying if current hand beats the provided hand
-	 */
-	public boolean beats(Hand hand) {
-		if (hand == null || !hand.isValid() || !this.isValid() || hand.size() != this.size()) {
-			return false;
-		}
-		String handType = hand.getType();
-		if (handType == "Straight" || handType == "Flush") {
-			return true;
-		} else if (handType == "Quad" || handType == "StraightFlush") {
-			return false;
-		}
-		// compare rank of their top cards
-		return (this.getTopCard().compareTo(hand.getTopCard()) > 0);
-	}
-	
 	/**
 	 * a method for checking if this is a valid Full House hand
 	 * @return boolean value specifying if Full House hand is valid
@@ -107,4 +87,12 @@ public class FullHouse extends Hand {
 	public String getType() {
 		return "FullHouse";
 	}
+	
+	/**
+	 * a method for returning the category of this hand
+	 * @return int value specifying the category of this hand
+	 */
+	public int getCategory() {
+		return BigTwoHandClassifier.FULL_HOUSE;
+	}
 }
@@ -0,0 +1,639 @@
+import java.nio.ByteBuffer;
+
+/**
+ * This class is used to model a game room (a table) of a card game server.
+ * Each room has its own player slots, ready states and deck, and messages
+ * from a client are routed to the room of the client. Overrides the methods
+ * createDeck(), gameStarted() and checkMove() if the room needs to keep track
+ * of the game being played.
+ * <p>
+ * The room deals the cards itself: each client only receives its own cards
+ * (and the public cards, see getPublicCards()) with the number of cards held
+ * by the other players, so no client learns the cards of its opponents. The
+ * moves are broadcast with the data returned by getMoveData(), e.g. the set
+ * of cards played, which the other clients can apply to hidden hands.
+ * <p>
+ * Each room is guarded by its own lock (the room itself), so messages of
+ * different rooms can be handled concurrently. The hooks are called while
+ * holding this lock.
+ * <p>
+ * A room supporting bots (see canSeatBots()) seats them in the slots without
+ * a connection when the bots of the server are enabled. A bot is always
+ * ready, and the room plays its moves with playBotMove().
+ * 
+ * @author karanvs
+ *
+ */
+public class GameRoom {
+	// the server hosting this room
+	private final CardGameServer server;
+	// the id of this room
+	private final int roomID;
+	// The maximum number of players in a card game
+	private final int maxNumOfPlayers;
+	// Array for holding connections of the clients
+	private CardGameServer.ClientConnection[] clientConnections;
+	// Array for holding player names of the clients
+	private String[] clientNames;
+	// Array for holding ready states of the clients
+	private boolean[] clientReadyStates;
+	// Array for marking the slots taken by bots (which have no connection)
+	private boolean[] botSeats;
+	// number of current players (including the bots)
+	private int numOfPlayers = 0;
+	// number of bots seated
+	private int numOfBots = 0;
+	// a boolean indicating if the bots are scheduled to take the empty slots
+	private boolean botFillScheduled = false;
+
+	/**
+	 * Creates and returns an instance of the GameRoom class.
+	 * 
+	 * @param server
+	 *            the server hosting this room
+	 * @param roomID
+	 *            the id of this room
+	 * @param maxNumOfPlayers
+	 *            the maximum number of players in a card game
+	 */
+	public GameRoom(CardGameServer server, int roomID, int maxNumOfPlayers) {
+		this.server = server;
+		this.roomID = roomID;
+		this.maxNumOfPlayers = maxNumOfPlayers;
+
+		// creates arrays for holding client connections, player names, and
+		// ready states
+		clientConnections = new CardGameServer.ClientConnection[maxNumOfPlayers];
+		clientNames = new String[maxNumOfPlayers];
+		clientReadyStates = new boolean[maxNumOfPlayers];
+		botSeats = new boolean[maxNumOfPlayers];
+	}
+
+	/**
+	 * Returns the id of this room.
+	 * 
+	 * @return the id of this room
+	 */
+	public int getRoomID() {
+		return roomID;
+	}
+
+	/**
+	 * Returns the number of players in this room.
+	 * 
+	 * @return the number of players in this room
+	 */
+	public synchronized int getNumOfPlayers() {
+		return numOfPlayers;
+	}
+
+	/**
+	 * Returns the number of clients seated in this room (i.e., the players
+	 * which are not bots).
+	 * 
+	 * @return the number of clients in this room
+	 */
+	public synchronized int getNumOfConnections() {
+		return numOfPlayers - numOfBots;
+	}
+
+	/**
+	 * Returns true if the specified slot of this room is taken by a bot.
+	 * 
+	 * @param playerID
+	 *            the playerID of the slot
+	 * @return true if the slot is taken by a bot; otherwise false
+	 */
+	public synchronized boolean isBot(int playerID) {
+		return playerID >= 0 && playerID < maxNumOfPlayers && botSeats[playerID];
+	}
+
+	/**
+	 * Returns true if this room has no empty slot.
+	 * 
+	 * @return true if this room is full; otherwise false
+	 */
+	public synchronized boolean isFull() {
+		return numOfPlayers >= maxNumOfPlayers;
+	}
+
+	/**
+	 * Parses the incoming message from the specified client of this room.
+	 * 
+	 * @param clientConnection
+	 *            the connection to the specified client
+	 * @param message
+	 *            the message received from the specified client
+	 */
+	synchronized void parseMessage(
+			CardGameServer.ClientConnection clientConnection,
+			CardGameMessage message) {
+		// ignores a message from a client which has just left this room
+		int playerID = clientConnection.getPlayerID();
+		if (playerID < 0 || clientConnections[playerID] != clientConnection) {
+			return;
+		}
+		// updates the playerID
+		message.setPlayerID(playerID);
+
+		// parses the message based on it type
+		switch (message.getType()) {
+		case CardGameMessage.JOIN:
+			// adds a player to the game
+			addPlayer(playerID, (String) message.getData());
+			break;
+		case CardGameMessage.READY:
+			// marks the specified player as ready for a new game
+			setReadyState(playerID);
+			break;
+		case CardGameMessage.MOVE:
+			Object cardIdx = message.getData();
+			// the data of the move is taken before the move changes the hand
+			Object moveData = (cardIdx == null || cardIdx instanceof int[])
+					? getMoveData(playerID, (int[]) cardIdx) : null;
+			if ((cardIdx == null || cardIdx instanceof int[])
+					&& checkMove(message.getPlayerID(), (int[]) cardIdx)) {
+				if (isDebugEnabled()) {
+					log(ServerLog.Level.DEBUG, "Broadcasts a \"MOVE\" message from "
+							+ clientConnection.getRemoteAddress());
+				}
+				// broadcast the accepted move to all clients
+				message.setData(moveData);
+				broadcastMessage(message);
+			} else {
+				println("Rejects an illegal move from "
+						+ clientConnection.getRemoteAddress());
+				// only tells the sender that its move is rejected
+				sendMessage(message.getPlayerID(), new CardGameMessage(
+						CardGameMessage.ILLEGAL_MOVE, message.getPlayerID(), null));
+			}
+			break;
+		case CardGameMessage.MSG:
+			if (isDebugEnabled()) {
+				log(ServerLog.Level.DEBUG, "Broadcasts a user message from "
+						+ clientConnection.getRemoteAddress());
+			}
+			// broadcast the user message to all clients
+			broadcastUserMessage(playerID, (String) message.getData());
+			break;
+		default:
+			log(ServerLog.Level.WARN, "Wrong message type: " + message.getType());
+			// invalid message
+			break;
+		}
+	} // parseMessage
+
+	/**
+	 * Broadcasts the specified message to all clients of this room. The
+	 * message is encoded once and the same (read-only) frame is sent to every
+	 * client.
+	 * 
+	 * @param message
+	 *            the specified message to be broadcast to all clients
+	 */
+	synchronized void broadcastMessage(CardGameMessage message) {
+		if (numOfPlayers > 0) {
+			long start = System.nanoTime();
+			ByteBuffer frame;
+			try {
+				frame = server.codec.encode(message).asReadOnlyBuffer();
+			} catch (Exception ex) {
+				log(ServerLog.Level.ERROR, "Error in encoding a message of type "
+						+ message.getType() + " for broadcasting");
+				if (!server.silentMode) ex.printStackTrace();
+				return;
+			}
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientConnections[i] != null) {
+					// each client gets its own position in the shared frame
+					clientConnections[i].send(frame.duplicate());
+				}
+			}
+			server.getMetrics().getBroadcastLatency().record(System.nanoTime() - start);
+		}
+	} // broadcastMessage
+
+	/**
+	 * Sends the specified message to the specified client only.
+	 * 
+	 * @param playerID
+	 *            the playerID of the client
+	 * @param message
+	 *            the specified message to be sent to the client
+	 */
+	synchronized void sendMessage(int playerID, CardGameMessage message) {
+		if (playerID >= 0 && playerID < maxNumOfPlayers
+				&& clientConnections[playerID] != null) {
+			try {
+				clientConnections[playerID].send(server.codec.encode(message));
+			} catch (Exception ex) {
+				log(ServerLog.Level.WARN, "Error in sending a message to the client at "
+						+ clientConnections[playerID].getRemoteAddress());
+				if (!server.silentMode) ex.printStackTrace();
+			}
+		}
+	} // sendMessage
+
+	/**
+	 * Adds a new connection to this room if it is not full, and seats the
+	 * client at the first empty slot.
+	 * 
+	 * @param clientConnection
+	 *            the connection to be added to this room
+	 * @return the playerID of the new connection, or -1 if this room is full
+	 */
+	synchronized int addConnection(
+			CardGameServer.ClientConnection clientConnection) {
+		// locates the first empty slot for the new connection
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			if (clientConnections[i] == null && !botSeats[i]) {
+				clientConnections[i] = clientConnection;
+				clientConnection.setSeat(this, i);
+				clientNames[i] = null;
+				clientReadyStates[i] = false;
+				numOfPlayers++;
+				println("Establishes a connection with a client at "
+						+ clientConnection.getRemoteAddress());
+
+				// sends the player list to the new player
+				sendMessage(i, new CardGameMessage(
+						CardGameMessage.PLAYER_LIST, i, clientNames));
+				return i;
+			}
+		} // for
+		return -1;
+	} // addConnection
+
+	/**
+	 * Removes a connection from this room (possibly due to connection loss).
+	 * 
+	 * @param clientConnection
+	 *            the connection being removed from this room
+	 */
+	synchronized void removeConnection(
+			CardGameServer.ClientConnection clientConnection) {
+		int i = clientConnection.getPlayerID();
+		if (i >= 0 && clientConnections[i] == clientConnection) {
+			String name = clientNames[i];
+			boolean gameInProgress = isGameInProgress();
+
+			clientConnections[i] = null;
+			clientNames[i] = null;
+			clientReadyStates[i] = false;
+			numOfPlayers--;
+			clientConnection.setSeat(null, -1);
+
+			println(name + " (" + clientConnection.getRemoteAddress()
+					+ ") leaves the game.");
+
+			if (areBotsEnabled() && numOfPlayers > numOfBots) {
+				// a bot takes over the slot, so the game of the other players
+				// goes on
+				seatBot(i);
+				println(clientNames[i] + " takes over the slot of " + name + ".");
+				broadcastMessage(new CardGameMessage(CardGameMessage.JOIN, i,
+						clientNames[i]));
+				if (gameInProgress) {
+					botSeated(i);
+				} else {
+					broadcastMessage(new CardGameMessage(CardGameMessage.READY,
+							i, null));
+					startGameIfAllReady();
+				}
+				return;
+			}
+
+			String remoteAddress = clientConnection.getRemoteAddress();
+
+			// broadcasts a message about the leaving of this player
+			broadcastMessage(new CardGameMessage(CardGameMessage.QUIT, i,
+					remoteAddress));
+
+			if (numOfBots > 0 && numOfPlayers == numOfBots) {
+				// the bots do not play on their own
+				for (int j = 0; j < maxNumOfPlayers; j++) {
+					if (botSeats[j]) {
+						botSeats[j] = false;
+						clientNames[j] = null;
+						clientReadyStates[j] = false;
+					}
+				}
+				numOfPlayers = 0;
+				numOfBots = 0;
+				println("All players have left: the bots leave the room.");
+			}
+
+			if (gameInProgress) {
+				// the game cannot go on without the player: no move is accepted
+				// until all the players are ready for a new game
+				for (int j = 0; j < maxNumOfPlayers; j++) {
+					clientReadyStates[j] = botSeats[j];
+				}
+				gameAborted();
+				println("The game is aborted.");
+			}
+		}
+	} // removeConnection
+
+	/**
+	 * adds a player to the game.
+	 * 
+	 * @param playerID
+	 *            the playerID of the player who is joining the game
+	 * @param name
+	 *            the name of the player who is joining the game
+	 */
+	private void addPlayer(int playerID, String name) {
+		// updates the name of the new player
+		clientNames[playerID] = name;
+
+		println(name + " (" + clientConnections[playerID].getRemoteAddress()
+				+ ") joins the game.");
+
+		// broadcasts a message about this player joining the game
+		broadcastMessage(new CardGameMessage(CardGameMessage.JOIN, playerID,
+				name));
+	} // addPlayer
+
+	/**
+	 * Marks the specified player as ready for a new game.
+	 * 
+	 * @param playerID
+	 *            the playerID of the player who becomes ready for a new game
+	 */
+	private void setReadyState(int playerID) {
+		clientReadyStates[playerID] = true;
+		println(clientNames[playerID] + " ("
+				+ clientConnections[playerID].getRemoteAddress()
+				+ " ) is ready for the next game.");
+		broadcastMessage(new CardGameMessage(CardGameMessage.READY, playerID,
+				null));
+
+		if (numOfPlayers < maxNumOfPlayers) {
+			// the empty slots may be taken by bots after a while
+			scheduleBotFill();
+		} else {
+			startGameIfAllReady();
+		}
+	}
+
+	/**
+	 * Starts a new game if all the slots are taken and all the players are
+	 * ready.
+	 */
+	private void startGameIfAllReady() {
+		// checks if all players are ready
+		if (numOfPlayers == maxNumOfPlayers) {
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				if (clientReadyStates[i] == false) {
+					// returns if any of the players is not ready
+					return;
+				}
+			}
+
+			if (server.isShuttingDown()) {
+				println("The server is shutting down: no new game is started.");
+				return;
+			}
+
+			// resets the ready states of all the players for the next game
+			// (the bots are always ready)
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				clientReadyStates[i] = botSeats[i];
+			}
+
+			// creates a new deck, shuffles the deck, and starts a new game
+			Deck deck = createDeck();
+			deck.shuffle();
+			println("All players are ready. Game starts.");
+			// deals the cards once, and sends each client its own view of
+			// the deal only
+			CardGameDeal deal = CardGameDeal.deal(deck, maxNumOfPlayers);
+			long publicCards = getPublicCards();
+			for (int i = 0; i < maxNumOfPlayers; i++) {
+				sendMessage(i, new CardGameMessage(CardGameMessage.START, i,
+						deal.getView(i, publicCards)));
+			}
+			gameStarted(deck);
+			server.getMetrics().gameStarted();
+		}
+	}
+
+	/**
+	 * Schedules the bots to take the empty slots of this room after the delay
+	 * set by the server, unless the bots are disabled.
+	 */
+	private void scheduleBotFill() {
+		if (areBotsEnabled() && !botFillScheduled) {
+			botFillScheduled = true;
+			server.schedule(() -> {
+				synchronized (this) {
+					botFillScheduled = false;
+					fillWithBots();
+				}
+			}, server.getBotFillDelay());
+		}
+	}
+
+	/**
+	 * Seats bots in the empty slots of this room if a player is still ready
+	 * for a new game, and starts the game.
+	 */
+	private void fillWithBots() {
+		boolean anyReady = false;
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			anyReady |= clientConnections[i] != null && clientReadyStates[i];
+		}
+		if (!anyReady || numOfPlayers == maxNumOfPlayers || server.isShuttingDown()) {
+			return;
+		}
+		for (int i = 0; i < maxNumOfPlayers; i++) {
+			if (clientConnections[i] == null && !botSeats[i]) {
+				seatBot(i);
+				println(clientNames[i] + " joins the game.");
+				broadcastMessage(new CardGameMessage(CardGameMessage.JOIN, i,
+						clientNames[i]));
+				broadcastMessage(new CardGameMessage(CardGameMessage.READY, i,
+						null));
+			}
+		}
+		startGameIfAllReady();
+	}
+
+	// seats a bot (which is always ready) in the specified empty slot
+	private void seatBot(int playerID) {
+		botSeats[playerID] = true;
+		clientNames[playerID] = "Bot " + (playerID + 1);
+		clientReadyStates[playerID] = true;
+		numOfPlayers++;
+		numOfBots++;
+	}
+
+	// returns true if bots can be seated in this room
+	private boolean areBotsEnabled() {
+		return canSeatBots() && server.getBotFillDelay() >= 0;
+	}
+
+	/**
+	 * Returns true if this room can seat bots, i.e. if it plays their moves
+	 * (see botSeated() and playBotMove()). Returns false by default.
+	 * 
+	 * @return true if this room can seat bots; otherwise false
+	 */
+	protected boolean canSeatBots() {
+		return false;
+	}
+
+	/**
+	 * Called when a bot takes over the slot of a player who has left during
+	 * the game in progress. Overrides this method to play the moves of the
+	 * bot if it is its turn.
+	 * 
+	 * @param playerID
+	 *            the playerID of the slot taken by the bot
+	 */
+	protected void botSeated(int playerID) {
+	}
+
+	/**
+	 * Plays the move chosen by the bot in the specified slot: the move is
+	 * checked as a move from a client, and broadcast if it is legal.
+	 * 
+	 * @param playerID
+	 *            the playerID of the bot
+	 * @param cardIdx
+	 *            the list of the indices of the cards selected by the bot, or
+	 *            null for a pass
+	 * @return true if the move is legal and has been broadcast; false
+	 *         otherwise
+	 */
+	protected synchronized boolean playBotMove(int playerID, int[] cardIdx) {
+		if (!isBot(playerID)) {
+			return false;
+		}
+		Object moveData = getMoveData(playerID, cardIdx);
+		if (!checkMove(playerID, cardIdx)) {
+			return false;
+		}
+		broadcastMessage(new CardGameMessage(CardGameMessage.MOVE, playerID,
+				moveData));
+		return true;
+	}
+
+	/**
+	 * Returns the cards shown to all the players when a new game is dealt
+	 * (see CardGameDeal). Overrides this method if the clients need to know
+	 * who holds some of the cards, e.g., who starts the game; no card is shown
+	 * by default.
+	 * 
+	 * @return the set of public cards (see CardSet)
+	 */
+	public long getPublicCards() {
+		return CardSet.EMPTY;
+	}
+
+	/**
+	 * Returns the data of the MOVE message broadcast for the specified move,
+	 * which is called before the move is checked. Overrides this method to
+	 * broadcast the set of cards played (see CardSet) as a Long, so that the
+	 * clients can play the moves of the opponents whose cards are hidden;
+	 * returns the card indices selected by the player by default.
+	 * 
+	 * @param playerID
+	 *            the playerID of the player who makes the move
+	 * @param cardIdx
+	 *            the list of the indices of the cards selected by the player,
+	 *            or null for a pass
+	 * @return the data of the MOVE message
+	 */
+	public Object getMoveData(int playerID, int[] cardIdx) {
+		return cardIdx;
+	}
+
+	/**
+	 * Creates and returns the deck for a new game in this room. Returns the deck
+	 * created by the server by default.
+	 * 
+	 * @return an instance of the Deck class
+	 */
+	public Deck createDeck() {
+		return server.createDeck();
+	}
+
+	/**
+	 * Called when a new game has been started with the specified deck. Overrides
+	 * this method if the room needs to keep track of the game state.
+	 * 
+	 * @param deck
+	 *            the shuffled deck whose cards have been dealt to the clients
+	 */
+	public void gameStarted(Deck deck) {
+	}
+
+	/**
+	 * Called when the game in progress is aborted because a player has left
+	 * and no bot has taken over the slot. Overrides this method to reset the
+	 * game state, so that no move is accepted until a new game is started.
+	 */
+	protected void gameAborted() {
+	}
+
+	/**
+	 * Records the end of the game in progress in the metrics of the server.
+	 * Called by the subclasses which keep track of the game state.
+	 */
+	protected void gameFinished() {
+		server.getMetrics().gameFinished();
+	}
+
+	/**
+	 * Returns true if a game is in progress in this room, in which case the
+	 * server waits for it to end before shutting down. Overrides this method if
+	 * the room keeps track of the game state; returns false by default.
+	 * 
+	 * @return true if a game is in progress; otherwise false
+	 */
+	public boolean isGameInProgress() {
+		return false;
+	}
+
+	/**
+	 * Checks the move made by the specified player before it is broadcast, and
+	 * plays it in this room if it is legal. Overrides this method to validate
+	 * moves on the server; all moves are accepted by default.
+	 * 
+	 * @param playerID
+	 *            the playerID of the player who makes the move
+	 * @param cardIdx
+	 *            the list of the indices of the cards selected by the player,
+	 *            or null for a pass
+	 * @return true if the move is legal and should be broadcast; false otherwise
+	 */
+	public boolean checkMove(int playerID, int[] cardIdx) {
+		return true;
+	}
+
+	private void broadcastUserMessage(int playerID, String msg) {
+		String longMsg = clientNames[playerID] + " ("
+				+ clientConnections[playerID].getRemoteAddress() + "): " + msg;
+		broadcastMessage(new CardGameMessage(CardGameMessage.MSG, playerID,
+				longMsg));
+	}
+
+	// logs the specified message about this room at the INFO level
+	private void println(String msg) {
+		log(ServerLog.Level.INFO, msg);
+	}
+
+	// logs the specified message about this room at the specified level
+	private void log(ServerLog.Level level, String msg) {
+		if (server.getLog().isLoggable(level)) {
+			server.log(level, "[Room " + roomID + "] " + msg);
+		}
+	}
+
+	// returns true if DEBUG messages are kept in the server log
+	private boolean isDebugEnabled() {
+		return server.getLog().isLoggable(ServerLog.Level.DEBUG);
+	}
+}
@@ -1,12 +1,16 @@
 /**
  * Hand class models a hand of cards and is a subclass of CardList
  * Additionally stores the player and provides framework for its subclasses
+ * A hand is immutable once composed, and carries a precomputed strength key (see BigTwoHandClassifier)
+ * so that comparing two hands is a single integer comparison
  * @author karanvs
  *
  */
 abstract class Hand extends CardList {
 	
 	private CardGamePlayer player;
+	// strength key of this hand, or BigTwoHandClassifier.INVALID if this is not a valid hand
+	private final int strength;
 	
 	/**
 	 * a constructor for building a hand with the specified player and list of cards
@@ -16,9 +20,10 @@ abstract class Hand extends CardList {
 	public Hand(CardGamePlayer player, CardList cards) {
 		this.player = player;
 		for (int i = 0; i < cards.size(); i++) {
-			this.addCard(cards.getCard(i));
+			super.addCard(cards.getCard(i));
 		}
 		this.sort();
+		this.strength = this.isValid() ? BigTwoHandClassifier.getStrength(this.getCardMask(), this.getCategory()) : BigTwoHandClassifier.INVALID;
 	}
 	
 	/**
@@ -36,24 +41,83 @@ abstract class Hand extends CardList {
 	 */
 	public Card getTopCard() {
 		if (!this.isEmpty()) {
-			this.sort();
 			return this.getCard(this.size()-1);
 		} else {
 			return null;
 		}
 	}
 	
+	/**
+	 * a method for retrieving the strength key of this hand (see BigTwoHandClassifier)
+	 * @return The strength key of this hand, or BigTwoHandClassifier.INVALID if this is not a valid hand
+	 */
+	public int getStrength() {
+		return this.strength;
+	}
+	
 	/**
 	 * a method for checking if this hand beats a specified hand
+	 * A hand only beats a valid hand with the same number of cards and a lower strength key
 	 * @param hand The hand of cards we are comparing against
 	 * @return boolean value specifying if current hand beats the provided hand
 	 */
 	public boolean beats(Hand hand) {
-		if (hand == null || !hand.isValid() || !this.isValid() || this.getType() != hand.getType()) {
+		if (hand == null || this.strength == BigTwoHandClassifier.INVALID || hand.strength == BigTwoHandClassifier.INVALID) {
 			return false;
-		} else {
-			return (this.getTopCard().compareTo(hand.getTopCard()) > 0);
 		}
+		return BigTwoHandClassifier.getSize(this.strength) == BigTwoHandClassifier.getSize(hand.strength) && this.strength > hand.strength;
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be added to a hand
+	 * @param card The card which cannot be added
+	 */
+	public void addCard(Card card) {
+		throw new UnsupportedOperationException("a hand cannot be modified");
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be removed from a hand
+	 * @param i The index of the card which cannot be removed
+	 * @return never returns normally
+	 */
+	public Card removeCard(int i) {
+		throw new UnsupportedOperationException("a hand cannot be modified");
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be removed from a hand
+	 * @param card The card which cannot be removed
+	 * @return never returns normally
+	 */
+	public boolean removeCard(Card card) {
+		throw new UnsupportedOperationException("a hand cannot be modified");
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be removed from a hand
+	 */
+	public void removeAllCards() {
+		throw new UnsupportedOperationException("a hand cannot be modified");
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be replaced in a hand
+	 * @param i The index of the card which cannot be replaced
+	 * @param card The card which cannot be stored
+	 * @return never returns normally
+	 */
+	public Card setCard(int i, Card card) {
+		throw new UnsupportedOperationException("a hand cannot be modified");
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be swapped in a hand
+	 * @param i The index of one card
+	 * @param j The index of the other card
+	 */
+	public void swapCards(int i, int j) {
+		throw new UnsupportedOperationException("a hand cannot be modified");
 	}
 	
 	/**
@@ -67,5 +131,11 @@ abstract class Hand extends CardList {
 	 * @return string value specifying the type of this hand
 	 */
 	public abstract String getType();
+	
+	/**
+	 * a method for returning the category of this hand (see BigTwoHandClassifier)
+	 * @return int value specifying the category of this hand
+	 */
+	public abstract int getCategory();
 
 }
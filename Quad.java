@@ -20,7 +20,6 @@ public class Quad extends Hand {
 	 */
 	public Card getTopCard() {
 		if (!this.isEmpty()) {
-			this.sort();
 			// Assuming it is a valid quad, the 4 cards with same rank are either in first 4
 			// spots or in the last 4 spots - the one with highest suit is 4th card in case 1 and last card in 2nd case
 			if (this.getCard(0).rank == this.getCard(1).rank) {
@@ -33,25 +32,6 @@ public class Quad extends Hand {
 		}
 	}
 	
-	/**
-	 * a method for checking if this Quad hand beats a specified hand
-	 * @param hand The hand of cards we are comparing against
-	 * @return boolean value specifying if current hand beats the provided hand
-	 */
-	public boolean beats(Hand hand) {
-		if (hand == null || !hand.isValid() || !this.isValid() || hand.size() != this.size()) {
-			return false;
-		}
-		String handType = hand.getType();
-		if (handType == "Straight" || handType == "Flush" || handType == "FullHouse") {
-			return true;
-		} else if (handType == "StraightFlush") {
-			return false;
-		}
-		// compare ranks of their top cards
-		return (this.getTopCard().compareTo(hand.getTopCard()) > 0);
-	}
-	
 	/**
 	 * a method for checking if this is a valid Quad hand
 	 * Assumes hand is legal (i.e. no duplicate cards etc.)
@@ -89,4 +69,12 @@ public class Quad extends Hand {
 	public String getType() {
 		return "Quad";
 	}
+	
+	/**
+	 * a method for returning the category of this hand
+	 * @return int value specifying the category of this hand
+	 */
+	public int getCategory() {
+		return BigTwoHandClassifier.QUAD;
+	}
 }
@@ -0,0 +1,143 @@
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+import javax.swing.JFrame;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.ScrollPaneConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.text.BadLocationException;
+
+/**
+ * This class is used to model the Swing console of a card game server. It
+ * listens to the log of the server and appends each batch of messages to its
+ * text area with a single update on the event dispatch thread. Only the last
+ * MAX_NUM_OF_LINES lines are kept.
+ *
+ * @author Kenneth Wong
+ *
+ */
+public class ServerConsole implements ServerLog.Listener {
+	/**
+	 * The maximum number of lines kept in the console.
+	 */
+	public static final int MAX_NUM_OF_LINES = 5000;
+
+	// the main frame of the server
+	private JFrame frame = null;
+	// text area for displaying server states
+	private JTextArea textArea = null;
+
+	/**
+	 * Creates and returns an instance of the ServerConsole class, and shows it.
+	 *
+	 * @param serverName
+	 *            the name of the card game server
+	 */
+	public ServerConsole(String serverName) {
+		SwingUtilities.invokeLater(() -> buildGUI(serverName));
+	}
+
+	/**
+	 * Builds the GUI for the server
+	 *
+	 * @param serverName
+	 *            the name of the card game server
+	 */
+	private void buildGUI(String serverName) {
+		// build a GUI
+		frame = new JFrame(serverName);
+		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+		textArea = new JTextArea(20, 40);
+		textArea.setEditable(false);
+		textArea.setLineWrap(true);
+		textArea.setWrapStyleWord(true);
+		JScrollPane scroller = new JScrollPane(textArea);
+		scroller.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED);
+		scroller.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+		frame.add(scroller);
+
+		// build the menu bar
+		JMenuItem clearMenuItem = new JMenuItem("Clear console");
+		clearMenuItem.addActionListener(new ClearMenuItemListener());
+		JMenuItem quitMenuItem = new JMenuItem("Quit");
+		quitMenuItem.addActionListener(new QuitMenuItemListener());
+		JMenu menu = new JMenu("Option");
+		menu.add(clearMenuItem);
+		menu.add(quitMenuItem);
+		JMenuBar menuBar = new JMenuBar();
+		menuBar.add(menu);
+		frame.setJMenuBar(menuBar);
+
+		frame.pack();
+		frame.setVisible(true);
+	} // buildGUI
+
+	/**
+	 * Appends a batch of messages of the log to the text area.
+	 *
+	 * @param entries
+	 *            the messages of the log
+	 */
+	@Override
+	public void logged(List<ServerLog.Entry> entries) {
+		StringBuilder sb = new StringBuilder();
+		for (ServerLog.Entry entry : entries) {
+			if (entry.getLevel() != ServerLog.Level.INFO) {
+				sb.append(entry.getLevel()).append(": ");
+			}
+			sb.append(entry.getMessage()).append('\n');
+		}
+		String text = sb.toString();
+		SwingUtilities.invokeLater(() -> append(text));
+	}
+
+	/**
+	 * Appends the specified text to the text area, and removes the oldest
+	 * lines beyond MAX_NUM_OF_LINES. Must be called on the EDT.
+	 *
+	 * @param text
+	 *            the text to be appended
+	 */
+	private void append(String text) {
+		textArea.append(text);
+		int excess = textArea.getLineCount() - 1 - MAX_NUM_OF_LINES;
+		if (excess > 0) {
+			try {
+				textArea.replaceRange(null, 0, textArea.getLineEndOffset(excess - 1));
+			} catch (BadLocationException ex) {
+				textArea.setText("");
+			}
+		}
+		textArea.setCaretPosition(textArea.getDocument().getLength());
+	}
+
+	/**
+	 * This inner class is used for handling the Clear menu
+	 *
+	 * @author Kenneth Wong
+	 *
+	 */
+	private class ClearMenuItemListener implements ActionListener {
+		public void actionPerformed(ActionEvent e) {
+			textArea.setText("");
+		}
+	} // ClearMenuItemListener
+
+	/**
+	 * This inner class is used for handling the Quit menu
+	 *
+	 * @author Kenneth Wong
+	 *
+	 */
+	private class QuitMenuItemListener implements ActionListener {
+		public void actionPerformed(ActionEvent e) {
+			frame.dispose();
+			System.exit(0);
+		}
+	} // QuitMenuItemListener
+}
@@ -0,0 +1,330 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is used to model the log of a card game server. Logging a message
+ * only puts it in a bounded queue, so the threads serving the clients never
+ * wait for the log. A background thread takes the messages from the queue and
+ * passes them in batches to the listeners of the log (e.g., a console). When
+ * the queue is full, new messages are dropped and counted.
+ *
+ * @author karanvs
+ *
+ */
+public class ServerLog {
+	/**
+	 * The levels of the messages of the log, from the least to the most
+	 * important.
+	 */
+	public enum Level {
+		/**
+		 * Messages about each message received or sent by the server.
+		 */
+		DEBUG,
+		/**
+		 * Messages about connections, players and games.
+		 */
+		INFO,
+		/**
+		 * Messages about problems with a client.
+		 */
+		WARN,
+		/**
+		 * Messages about problems with the server.
+		 */
+		ERROR
+	}
+
+	/**
+	 * This interface is used to receive the messages of the log. The methods
+	 * are called by the thread of the log.
+	 */
+	public interface Listener {
+		/**
+		 * Called with the next batch of messages of the log.
+		 *
+		 * @param entries
+		 *            the messages, in the order in which they were logged
+		 */
+		void logged(List<Entry> entries);
+	}
+
+	/**
+	 * This class is used to model a message of the log.
+	 */
+	public static final class Entry {
+		private final long time;
+		private final Level level;
+		private final String message;
+
+		private Entry(Level level, String message) {
+			this.time = System.currentTimeMillis();
+			this.level = level;
+			this.message = message;
+		}
+
+		/**
+		 * Returns the time at which the message was logged.
+		 *
+		 * @return the time at which the message was logged, in milliseconds
+		 *         since the epoch
+		 */
+		public long getTime() {
+			return time;
+		}
+
+		/**
+		 * Returns the level of the message.
+		 *
+		 * @return the level of the message
+		 */
+		public Level getLevel() {
+			return level;
+		}
+
+		/**
+		 * Returns the message.
+		 *
+		 * @return the message
+		 */
+		public String getMessage() {
+			return message;
+		}
+
+		/**
+		 * Returns the message with its time and level.
+		 *
+		 * @return a string representation of the message
+		 */
+		@Override
+		public String toString() {
+			return String.format("%tF %<tT.%<tL %-5s %s", time, level, message);
+		}
+	}
+
+	/**
+	 * The default maximum number of messages waiting in the queue.
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	// the maximum number of messages passed to the listeners at a time
+	private static final int MAX_BATCH_SIZE = 256;
+
+	// the messages waiting to be passed to the listeners
+	private final ArrayBlockingQueue<Entry> queue;
+	// the listeners of this log
+	private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+	// the number of messages dropped since the last batch
+	private final AtomicLong droppedCount = new AtomicLong();
+	// the least important level of the messages kept in this log
+	private volatile Level level = Level.INFO;
+	// the number of messages logged but not yet passed to the listeners
+	private final AtomicLong pendingCount = new AtomicLong();
+
+	/**
+	 * Creates and returns an instance of the ServerLog class with the default
+	 * capacity.
+	 *
+	 * @param name
+	 *            the name of the thread of the log
+	 */
+	public ServerLog(String name) {
+		this(name, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates and returns an instance of the ServerLog class, and starts the
+	 * thread of the log.
+	 *
+	 * @param name
+	 *            the name of the thread of the log
+	 * @param capacity
+	 *            the maximum number of messages waiting in the queue
+	 */
+	public ServerLog(String name, int capacity) {
+		queue = new ArrayBlockingQueue<Entry>(capacity);
+		Thread thread = new Thread(this::dispatch, name);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Sets the least important level of the messages kept in this log. Less
+	 * important messages are discarded at once.
+	 *
+	 * @param level
+	 *            the least important level of the messages kept
+	 */
+	public void setLevel(Level level) {
+		this.level = level;
+	}
+
+	/**
+	 * Returns the least important level of the messages kept in this log.
+	 *
+	 * @return the least important level of the messages kept
+	 */
+	public Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Returns true if messages of the specified level are kept in this log.
+	 * Callers can check it before building an expensive message.
+	 *
+	 * @param level
+	 *            the level of a message
+	 * @return true if messages of the level are kept; otherwise false
+	 */
+	public boolean isLoggable(Level level) {
+		return level.compareTo(this.level) >= 0;
+	}
+
+	/**
+	 * Adds a listener receiving the messages of this log.
+	 *
+	 * @param listener
+	 *            the listener to be added
+	 */
+	public void addListener(Listener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener of this log.
+	 *
+	 * @param listener
+	 *            the listener to be removed
+	 */
+	public void removeListener(Listener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Logs the specified message at the specified level, without waiting.
+	 *
+	 * @param level
+	 *            the level of the message
+	 * @param message
+	 *            the message to be logged
+	 */
+	public void log(Level level, String message) {
+		if (isLoggable(level)) {
+			pendingCount.incrementAndGet();
+			if (!queue.offer(new Entry(level, message))) {
+				pendingCount.decrementAndGet();
+				droppedCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Logs the specified message at the DEBUG level.
+	 *
+	 * @param message
+	 *            the message to be logged
+	 */
+	public void debug(String message) {
+		log(Level.DEBUG, message);
+	}
+
+	/**
+	 * Logs the specified message at the INFO level.
+	 *
+	 * @param message
+	 *            the message to be logged
+	 */
+	public void info(String message) {
+		log(Level.INFO, message);
+	}
+
+	/**
+	 * Logs the specified message at the WARN level.
+	 *
+	 * @param message
+	 *            the message to be logged
+	 */
+	public void warn(String message) {
+		log(Level.WARN, message);
+	}
+
+	/**
+	 * Logs the specified message at the ERROR level.
+	 *
+	 * @param message
+	 *            the message to be logged
+	 */
+	public void error(String message) {
+		log(Level.ERROR, message);
+	}
+
+	/**
+	 * Waits until the messages logged so far have been passed to the
+	 * listeners, or until the specified time has elapsed.
+	 *
+	 * @param timeoutMillis
+	 *            the maximum time to wait, in milliseconds
+	 */
+	public void flush(long timeoutMillis) {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		try {
+			while (pendingCount.get() > 0
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns a listener printing the messages of a log with their time and
+	 * level to the standard output.
+	 *
+	 * @return a listener printing to the standard output
+	 */
+	public static Listener standardOutput() {
+		return entries -> {
+			StringBuilder sb = new StringBuilder();
+			for (Entry entry : entries) {
+				sb.append(entry).append(System.lineSeparator());
+			}
+			System.out.print(sb);
+			System.out.flush();
+		};
+	}
+
+	// passes the messages in the queue to the listeners in batches
+	private void dispatch() {
+		ArrayList<Entry> entries = new ArrayList<Entry>(MAX_BATCH_SIZE);
+		while (true) {
+			try {
+				entries.add(queue.take());
+			} catch (InterruptedException ex) {
+				return;
+			}
+			queue.drainTo(entries, MAX_BATCH_SIZE - 1);
+			int numOfEntries = entries.size();
+			long dropped = droppedCount.getAndSet(0);
+			if (dropped > 0) {
+				entries.add(new Entry(Level.WARN, dropped
+						+ " messages dropped: the log is full"));
+			}
+			List<Entry> batch = Collections.unmodifiableList(entries);
+			for (Listener listener : listeners) {
+				try {
+					listener.logged(batch);
+				} catch (RuntimeException ex) {
+					ex.printStackTrace();
+				}
+			}
+			pendingCount.addAndGet(-numOfEntries);
+			// listeners may keep the batch (e.g., until the EDT runs)
+			entries = new ArrayList<Entry>(MAX_BATCH_SIZE);
+		}
+	}
+}
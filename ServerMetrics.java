@@ -0,0 +1,554 @@
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.management.ObjectName;
+
+/**
+ * This class is used to collect the metrics of a card game server: message and
+ * byte counts by message type, broadcast latency, lock wait time, outbound
+ * queue depths, connections, rooms and games. Counters are LongAdders, so
+ * recording a metric from many threads costs no contention. The metrics can be
+ * read through JMX (see ServerMetricsMBean) or dumped periodically as plain
+ * text or JSON.
+ *
+ * @author karanvs
+ *
+ */
+public class ServerMetrics implements ServerMetricsMBean {
+	/**
+	 * This class is used to model a histogram of durations with log-linear
+	 * buckets (as in HdrHistogram): each power of two is split into 16 linear
+	 * sub-buckets, so a bucket is at most 1/16 of the durations it holds wide.
+	 * It can be recorded concurrently without locking.
+	 */
+	public static final class Histogram {
+		// the number of bits of the sub-bucket of a duration
+		private static final int SUB_BUCKET_BITS = 4;
+		private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+		// buckets 0 to 2 * SUB_BUCKETS - 1 count a single duration each; then
+		// each power of two 2^e (e >= SUB_BUCKET_BITS + 1) has SUB_BUCKETS
+		// buckets of width 2^(e - SUB_BUCKET_BITS)
+		private final LongAdder[] buckets = new LongAdder[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		/**
+		 * Creates and returns an empty histogram.
+		 */
+		public Histogram() {
+			for (int i = 0; i < buckets.length; i++) {
+				buckets[i] = new LongAdder();
+			}
+		}
+
+		/**
+		 * Records the specified duration.
+		 *
+		 * @param nanos
+		 *            the duration, in nanoseconds
+		 */
+		public void record(long nanos) {
+			nanos = Math.max(nanos, 1);
+			buckets[getBucketIdx(nanos)].increment();
+			count.increment();
+			sum.add(nanos);
+			max.accumulate(nanos);
+		}
+
+		/**
+		 * Returns the number of durations recorded.
+		 *
+		 * @return the number of durations recorded
+		 */
+		public long getCount() {
+			return count.sum();
+		}
+
+		/**
+		 * Returns the mean of the durations recorded.
+		 *
+		 * @return the mean duration, in microseconds
+		 */
+		public double getMean() {
+			long n = count.sum();
+			return (n == 0) ? 0 : sum.sum() / 1000.0 / n;
+		}
+
+		/**
+		 * Returns the longest duration recorded.
+		 *
+		 * @return the longest duration, in microseconds
+		 */
+		public double getMax() {
+			return max.get() / 1000.0;
+		}
+
+		/**
+		 * Returns the specified percentile of the durations recorded,
+		 * interpolated linearly within the bucket holding it (so it is off by
+		 * at most 1/16 of its value).
+		 *
+		 * @param percentile
+		 *            the percentile, between 0 and 100
+		 * @return the percentile, in microseconds
+		 */
+		public double getPercentile(double percentile) {
+			long n = count.sum();
+			long rank = Math.max((long) Math.ceil(n * percentile / 100), 1);
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				long inBucket = buckets[i].sum();
+				if (inBucket > 0 && seen + inBucket >= rank) {
+					long width = getBucketWidth(i);
+					double nanos = getBucketStart(i) + (width - 1) * (double) (rank - seen) / inBucket;
+					return Math.min(nanos, max.get()) / 1000.0;
+				}
+				seen += inBucket;
+			}
+			return 0;
+		}
+
+		// returns the index of the bucket counting the specified duration
+		private static int getBucketIdx(long nanos) {
+			if (nanos < 2 * SUB_BUCKETS) {
+				return (int) nanos;
+			}
+			int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+			return (shift + 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+		}
+
+		// returns the shortest duration counted by the specified bucket
+		private static long getBucketStart(int bucketIdx) {
+			if (bucketIdx < 2 * SUB_BUCKETS) {
+				return bucketIdx;
+			}
+			int shift = bucketIdx / SUB_BUCKETS - 1;
+			return (long) (SUB_BUCKETS + bucketIdx % SUB_BUCKETS) << shift;
+		}
+
+		// returns the number of durations counted by the specified bucket
+		private static long getBucketWidth(int bucketIdx) {
+			return (bucketIdx < 2 * SUB_BUCKETS) ? 1 : 1L << (bucketIdx / SUB_BUCKETS - 1);
+		}
+	}
+
+	// names of the message types (see CardGameMessage)
+	private static final String[] TYPE_NAMES = { "PLAYER_LIST", "JOIN",
+			"FULL", "QUIT", "READY", "START", "MOVE", "MSG", "ILLEGAL_MOVE" };
+
+	// the server whose metrics are collected
+	private final CardGameServer server;
+	private final LongAdder[] messagesReceived = new LongAdder[TYPE_NAMES.length];
+	private final LongAdder[] messagesSent = new LongAdder[TYPE_NAMES.length];
+	private final LongAdder bytesReceived = new LongAdder();
+	private final LongAdder bytesSent = new LongAdder();
+	private final LongAdder messagesDropped = new LongAdder();
+	private final LongAdder slowClientDisconnects = new LongAdder();
+	private final LongAdder botMoveFailures = new LongAdder();
+	private final LongAdder gamesStarted = new LongAdder();
+	private final LongAdder gamesFinished = new LongAdder();
+	private final Histogram broadcastLatency = new Histogram();
+	private final Histogram lockWait = new Histogram();
+	// the name under which the metrics are registered with JMX, if any
+	private ObjectName objectName = null;
+	// the thread dumping the metrics periodically, if any
+	private ScheduledExecutorService reporter = null;
+
+	/**
+	 * Creates and returns an instance of the ServerMetrics class.
+	 *
+	 * @param server
+	 *            the server whose metrics are collected
+	 */
+	public ServerMetrics(CardGameServer server) {
+		this.server = server;
+		for (int i = 0; i < TYPE_NAMES.length; i++) {
+			messagesReceived[i] = new LongAdder();
+			messagesSent[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Records a message received from a client.
+	 *
+	 * @param type
+	 *            the type of the message
+	 * @param length
+	 *            the length of the frame of the message, in bytes
+	 */
+	public void messageReceived(int type, int length) {
+		if (type >= 0 && type < TYPE_NAMES.length) {
+			messagesReceived[type].increment();
+		}
+		bytesReceived.add(length);
+	}
+
+	/**
+	 * Records a message queued for sending to a client.
+	 *
+	 * @param type
+	 *            the type of the message
+	 * @param length
+	 *            the length of the frame of the message, in bytes
+	 */
+	public void messageSent(int type, int length) {
+		if (type >= 0 && type < TYPE_NAMES.length) {
+			messagesSent[type].increment();
+		}
+		bytesSent.add(length);
+	}
+
+	/**
+	 * Records a message dropped because the outbound queue of a client was
+	 * full.
+	 */
+	public void messageDropped() {
+		messagesDropped.increment();
+	}
+
+	/**
+	 * Records a client disconnected because its outbound queue was full.
+	 */
+	public void slowClientDisconnected() {
+		slowClientDisconnects.increment();
+	}
+
+	/**
+	 * Records a move of a bot replaced by a fallback move, because the bot
+	 * failed or chose an illegal move.
+	 */
+	public void botMoveFailed() {
+		botMoveFailures.increment();
+	}
+
+	/**
+	 * Records the start of a game.
+	 */
+	public void gameStarted() {
+		gamesStarted.increment();
+	}
+
+	/**
+	 * Records the end of a game.
+	 */
+	public void gameFinished() {
+		gamesFinished.increment();
+	}
+
+	/**
+	 * Returns the histogram of the time taken to broadcast a message to a room.
+	 *
+	 * @return the histogram of the broadcast latency
+	 */
+	public Histogram getBroadcastLatency() {
+		return broadcastLatency;
+	}
+
+	/**
+	 * Returns the histogram of the time waited for the lock of a room.
+	 *
+	 * @return the histogram of the lock wait time
+	 */
+	public Histogram getLockWait() {
+		return lockWait;
+	}
+
+	@Override
+	public long getMessagesReceived() {
+		return sum(messagesReceived);
+	}
+
+	@Override
+	public long[] getMessagesReceivedByType() {
+		return sums(messagesReceived);
+	}
+
+	@Override
+	public long getMessagesSent() {
+		return sum(messagesSent);
+	}
+
+	@Override
+	public long[] getMessagesSentByType() {
+		return sums(messagesSent);
+	}
+
+	@Override
+	public long getMessagesDropped() {
+		return messagesDropped.sum();
+	}
+
+	@Override
+	public long getSlowClientDisconnects() {
+		return slowClientDisconnects.sum();
+	}
+
+	@Override
+	public long getBotMoveFailures() {
+		return botMoveFailures.sum();
+	}
+
+	@Override
+	public long getBytesReceived() {
+		return bytesReceived.sum();
+	}
+
+	@Override
+	public long getBytesSent() {
+		return bytesSent.sum();
+	}
+
+	@Override
+	public int getActiveConnections() {
+		return server.getNumOfConnections();
+	}
+
+	@Override
+	public int getActiveRooms() {
+		return server.getNumOfActiveRooms();
+	}
+
+	@Override
+	public int getGamesInProgress() {
+		return server.getNumOfGamesInProgress();
+	}
+
+	@Override
+	public long getGamesStarted() {
+		return gamesStarted.sum();
+	}
+
+	@Override
+	public long getGamesFinished() {
+		return gamesFinished.sum();
+	}
+
+	@Override
+	public long getTotalQueuedBytes() {
+		long total = 0;
+		for (CardGameServer.ClientConnection connection : server.getConnections()) {
+			total += connection.getQueuedBytes();
+		}
+		return total;
+	}
+
+	@Override
+	public long getMaxQueuedBytes() {
+		long max = 0;
+		for (CardGameServer.ClientConnection connection : server.getConnections()) {
+			max = Math.max(max, connection.getQueuedBytes());
+		}
+		return max;
+	}
+
+	@Override
+	public double getBroadcastLatencyMean() {
+		return broadcastLatency.getMean();
+	}
+
+	@Override
+	public double getBroadcastLatencyP99() {
+		return broadcastLatency.getPercentile(99);
+	}
+
+	@Override
+	public double getLockWaitMean() {
+		return lockWait.getMean();
+	}
+
+	@Override
+	public double getLockWaitP99() {
+		return lockWait.getPercentile(99);
+	}
+
+	@Override
+	public String getTextReport() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format("connections=%d rooms=%d gamesInProgress=%d gamesStarted=%d gamesFinished=%d%n",
+				getActiveConnections(), getActiveRooms(), getGamesInProgress(),
+				getGamesStarted(), getGamesFinished()));
+		sb.append(String.format("received=%d (%d bytes) sent=%d (%d bytes) dropped=%d slowClientDisconnects=%d botMoveFailures=%d%n",
+				getMessagesReceived(), getBytesReceived(), getMessagesSent(),
+				getBytesSent(), getMessagesDropped(), getSlowClientDisconnects(),
+				getBotMoveFailures()));
+		sb.append("received by type:");
+		appendByType(sb, messagesReceived);
+		sb.append(String.format("%nsent by type:"));
+		appendByType(sb, messagesSent);
+		sb.append(String.format("%nqueuedBytes total=%d max=%d%n",
+				getTotalQueuedBytes(), getMaxQueuedBytes()));
+		appendHistogram(sb, "broadcastLatency", broadcastLatency);
+		appendHistogram(sb, "lockWait", lockWait);
+		return sb.toString();
+	}
+
+	@Override
+	public String getJsonReport() {
+		StringBuilder sb = new StringBuilder("{");
+		sb.append("\"connections\":").append(getActiveConnections());
+		sb.append(",\"rooms\":").append(getActiveRooms());
+		sb.append(",\"gamesInProgress\":").append(getGamesInProgress());
+		sb.append(",\"gamesStarted\":").append(getGamesStarted());
+		sb.append(",\"gamesFinished\":").append(getGamesFinished());
+		sb.append(",\"messagesReceived\":");
+		appendJsonByType(sb, messagesReceived);
+		sb.append(",\"messagesSent\":");
+		appendJsonByType(sb, messagesSent);
+		sb.append(",\"bytesReceived\":").append(getBytesReceived());
+		sb.append(",\"bytesSent\":").append(getBytesSent());
+		sb.append(",\"messagesDropped\":").append(getMessagesDropped());
+		sb.append(",\"slowClientDisconnects\":").append(getSlowClientDisconnects());
+		sb.append(",\"botMoveFailures\":").append(getBotMoveFailures());
+		sb.append(",\"totalQueuedBytes\":").append(getTotalQueuedBytes());
+		sb.append(",\"maxQueuedBytes\":").append(getMaxQueuedBytes());
+		sb.append(",\"broadcastLatencyMicros\":");
+		appendJsonHistogram(sb, broadcastLatency);
+		sb.append(",\"lockWaitMicros\":");
+		appendJsonHistogram(sb, lockWait);
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Registers the metrics with the platform MBean server under the name
+	 * "BigTwo:type=ServerMetrics,name=(server name)".
+	 *
+	 * @param serverName
+	 *            the name of the server
+	 * @throws Exception
+	 *             if the metrics cannot be registered
+	 */
+	public synchronized void registerMBean(String serverName) throws Exception {
+		if (objectName == null) {
+			ObjectName name = new ObjectName("BigTwo:type=ServerMetrics,name="
+					+ ObjectName.quote(serverName));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+			objectName = name;
+		}
+	}
+
+	/**
+	 * Unregisters the metrics from the platform MBean server, if registered.
+	 */
+	public synchronized void unregisterMBean() {
+		if (objectName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+			} catch (Exception ex) {
+				// already unregistered
+			}
+			objectName = null;
+		}
+	}
+
+	/**
+	 * Starts dumping a report of the metrics periodically, including the rates
+	 * of messages and games per second since the previous report.
+	 *
+	 * @param periodSeconds
+	 *            the time between two reports, in seconds
+	 * @param json
+	 *            true for JSON reports; false for plain-text reports
+	 * @param output
+	 *            receives each report (e.g., the log of the server)
+	 */
+	public synchronized void startReporting(long periodSeconds, boolean json,
+			Consumer<String> output) {
+		stopReporting();
+		reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+			Thread thread = new Thread(task, "ServerMetrics-reporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long[] previous = new long[4];
+		long[] previousTime = { System.nanoTime() };
+		reporter.scheduleAtFixedRate(() -> {
+			long[] current = { getMessagesReceived(), getMessagesSent(),
+					getGamesStarted(), getGamesFinished() };
+			long now = System.nanoTime();
+			double seconds = Math.max((now - previousTime[0]) / 1e9, 1e-9);
+			double[] rates = new double[current.length];
+			for (int i = 0; i < current.length; i++) {
+				rates[i] = (current[i] - previous[i]) / seconds;
+			}
+			System.arraycopy(current, 0, previous, 0, current.length);
+			previousTime[0] = now;
+			if (json) {
+				String report = getJsonReport();
+				output.accept(report.substring(0, report.length() - 1)
+						+ String.format(Locale.ROOT, ",\"receivedPerSecond\":%.1f,\"sentPerSecond\":%.1f"
+								+ ",\"gamesStartedPerSecond\":%.2f,\"gamesFinishedPerSecond\":%.2f}",
+								rates[0], rates[1], rates[2], rates[3]));
+			} else {
+				output.accept(String.format("Metrics: %.1f received/s, %.1f sent/s, "
+						+ "%.2f games started/s, %.2f games finished/s%n%s",
+						rates[0], rates[1], rates[2], rates[3], getTextReport()));
+			}
+		}, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops dumping reports of the metrics, if started.
+	 */
+	public synchronized void stopReporting() {
+		if (reporter != null) {
+			reporter.shutdownNow();
+			reporter = null;
+		}
+	}
+
+	private static long sum(LongAdder[] adders) {
+		long sum = 0;
+		for (LongAdder adder : adders) {
+			sum += adder.sum();
+		}
+		return sum;
+	}
+
+	private static long[] sums(LongAdder[] adders) {
+		long[] sums = new long[adders.length];
+		for (int i = 0; i < adders.length; i++) {
+			sums[i] = adders[i].sum();
+		}
+		return sums;
+	}
+
+	private static void appendByType(StringBuilder sb, LongAdder[] adders) {
+		for (int i = 0; i < adders.length; i++) {
+			sb.append(' ').append(TYPE_NAMES[i]).append('=').append(adders[i].sum());
+		}
+	}
+
+	private static void appendHistogram(StringBuilder sb, String name,
+			Histogram histogram) {
+		sb.append(String.format("%s count=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus%n",
+				name, histogram.getCount(), histogram.getMean(),
+				histogram.getPercentile(50), histogram.getPercentile(99), histogram.getPercentile(99.9),
+				histogram.getMax()));
+	}
+
+	private static void appendJsonByType(StringBuilder sb, LongAdder[] adders) {
+		sb.append('{');
+		for (int i = 0; i < adders.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append('"').append(TYPE_NAMES[i]).append("\":").append(adders[i].sum());
+		}
+		sb.append('}');
+	}
+
+	private static void appendJsonHistogram(StringBuilder sb, Histogram histogram) {
+		sb.append(String.format(Locale.ROOT,
+				"{\"count\":%d,\"mean\":%.1f,\"p50\":%.1f,\"p99\":%.1f,\"p999\":%.1f,\"max\":%.1f}",
+				histogram.getCount(), histogram.getMean(),
+				histogram.getPercentile(50), histogram.getPercentile(99), histogram.getPercentile(99.9),
+				histogram.getMax()));
+	}
+}
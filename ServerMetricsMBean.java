@@ -0,0 +1,171 @@
+/**
+ * This interface is used to expose the metrics of a card game server (see
+ * ServerMetrics) through JMX. Latencies are in microseconds.
+ *
+ * @author karanvs
+ *
+ */
+public interface ServerMetricsMBean {
+	/**
+	 * Returns the number of messages received from the clients.
+	 *
+	 * @return the number of messages received
+	 */
+	long getMessagesReceived();
+
+	/**
+	 * Returns the number of messages received from the clients, by message
+	 * type (see CardGameMessage).
+	 *
+	 * @return the number of messages received, indexed by message type
+	 */
+	long[] getMessagesReceivedByType();
+
+	/**
+	 * Returns the number of messages queued for sending to the clients.
+	 *
+	 * @return the number of messages sent
+	 */
+	long getMessagesSent();
+
+	/**
+	 * Returns the number of messages queued for sending to the clients, by
+	 * message type (see CardGameMessage).
+	 *
+	 * @return the number of messages sent, indexed by message type
+	 */
+	long[] getMessagesSentByType();
+
+	/**
+	 * Returns the number of messages dropped because the outbound queue of a
+	 * client was full.
+	 *
+	 * @return the number of messages dropped
+	 */
+	long getMessagesDropped();
+
+	/**
+	 * Returns the number of clients disconnected because their outbound queue
+	 * was full.
+	 *
+	 * @return the number of clients disconnected
+	 */
+	long getSlowClientDisconnects();
+
+	/**
+	 * Returns the number of moves of bots replaced by a fallback move, because
+	 * the bot failed or chose an illegal move.
+	 *
+	 * @return the number of moves replaced
+	 */
+	long getBotMoveFailures();
+
+	/**
+	 * Returns the number of bytes received from the clients.
+	 *
+	 * @return the number of bytes received
+	 */
+	long getBytesReceived();
+
+	/**
+	 * Returns the number of bytes queued for sending to the clients.
+	 *
+	 * @return the number of bytes sent
+	 */
+	long getBytesSent();
+
+	/**
+	 * Returns the number of open client connections.
+	 *
+	 * @return the number of open client connections
+	 */
+	int getActiveConnections();
+
+	/**
+	 * Returns the number of game rooms in which at least one client is
+	 * seated.
+	 *
+	 * @return the number of game rooms in use
+	 */
+	int getActiveRooms();
+
+	/**
+	 * Returns the number of rooms with a game in progress.
+	 *
+	 * @return the number of games in progress
+	 */
+	int getGamesInProgress();
+
+	/**
+	 * Returns the number of games started.
+	 *
+	 * @return the number of games started
+	 */
+	long getGamesStarted();
+
+	/**
+	 * Returns the number of games played to the end.
+	 *
+	 * @return the number of games finished
+	 */
+	long getGamesFinished();
+
+	/**
+	 * Returns the number of bytes waiting in the outbound queues of all the
+	 * clients.
+	 *
+	 * @return the number of bytes queued
+	 */
+	long getTotalQueuedBytes();
+
+	/**
+	 * Returns the largest number of bytes waiting in the outbound queue of a
+	 * client.
+	 *
+	 * @return the largest number of bytes queued for a client
+	 */
+	long getMaxQueuedBytes();
+
+	/**
+	 * Returns the mean time taken to broadcast a message to a room.
+	 *
+	 * @return the mean broadcast latency
+	 */
+	double getBroadcastLatencyMean();
+
+	/**
+	 * Returns the 99th percentile of the time taken to broadcast a message to
+	 * a room.
+	 *
+	 * @return the 99th percentile of the broadcast latency
+	 */
+	double getBroadcastLatencyP99();
+
+	/**
+	 * Returns the mean time waited for the lock of a room.
+	 *
+	 * @return the mean lock wait time
+	 */
+	double getLockWaitMean();
+
+	/**
+	 * Returns the 99th percentile of the time waited for the lock of a room.
+	 *
+	 * @return the 99th percentile of the lock wait time
+	 */
+	double getLockWaitP99();
+
+	/**
+	 * Returns a plain-text report of the metrics.
+	 *
+	 * @return a plain-text report of the metrics
+	 */
+	String getTextReport();
+
+	/**
+	 * Returns a JSON report of the metrics.
+	 *
+	 * @return a JSON report of the metrics
+	 */
+	String getJsonReport();
+}
@@ -4,8 +4,6 @@
  *
  */
 public class Straight extends Hand {
-	
-	private int[] rankScore = {12, 13, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
 
 	/**
 	 * Constructor to create a Straight hand
@@ -16,23 +14,6 @@ public class Straight extends Hand {
 		super(player, cards);
 	}
 	
-	/**
-	 * a method for checking if this hand beats a specified hand
-	 * @param hand The hand of cards we are comparing against
-	 * @return boolean value specifying if current hand beats the provided hand
-	 */
-	public boolean beats(Hand hand) {
-		// need to have same number of cards
-		if (hand == null || !hand.isValid() || !this.isValid() || hand.size() != this.size()) {
-			return false;
-		}
-		String handType = hand.getType();
-		if (handType == "Flush" || handType == "FullHouse" || handType == "Quad" || handType == "StraightFlush") {
-			return false;
-		}
-		return (this.getTopCard().compareTo(hand.getTopCard()) > 0);
-	}
-	
 	/**
 	 * a method for checking if this is a valid Straight hand
 	 * @return boolean value specifying if Straight hand is valid
@@ -45,7 +26,7 @@ public class Straight extends Hand {
 		// check if cards ranks are consecutive
 		int[] cardScores = new int[this.size()];
 		for (int i = 0; i < this.size(); i++) {
-			cardScores[i] = rankScore[this.getCard(i).rank];
+			cardScores[i] = BigTwoCard.getRankScore(this.getCard(i).rank);
 		}
 		
 		for (int i = 0; i < cardScores.length - 1; i++) {
@@ -63,4 +44,12 @@ public class Straight extends Hand {
 	public String getType() {
 		return "Straight";
 	}
+	
+	/**
+	 * a method for returning the category of this hand
+	 * @return int value specifying the category of this hand
+	 */
+	public int getCategory() {
+		return BigTwoHandClassifier.STRAIGHT;
+	}
 }
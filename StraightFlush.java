@@ -5,8 +5,6 @@
  */
 public class StraightFlush extends Hand {
 	
-	private int[] rankScore = {12, 13, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11};
-	
 	/**
 	 * Constructor to create a Straight Flush hand
 	 * @param player The player who is playing this hand
@@ -16,23 +14,6 @@ public class StraightFlush extends Hand {
 		super(player, cards);
 	}
 	
-	/**
-	 * a method for checking if this hand beats a specified hand
-	 * @param hand The hand of cards we are comparing against
-	 * @return boolean value specifying if current hand beats the provided hand
-	 */
-	public boolean beats(Hand hand) {
-		if (hand == null || !hand.isValid() || !this.isValid() || hand.size() != this.size()) {
-			return false;
-		}
-		String handType = hand.getType();
-		if (handType == "Straight" || handType == "Flush" || handType == "FullHouse" || handType == "Quad") {
-			return true;
-		}
-		// compare ranks of their top cards, if ranks are same, compare suit
-		return (this.getTopCard().compareTo(hand.getTopCard()) > 0);
-	}
-	
 	/**
 	 * a method for checking if this is a valid Quad hand
 	 * Assumes hand is legal (i.e. no duplicate cards etc.)
@@ -48,7 +29,7 @@ public class StraightFlush extends Hand {
 		int[] cardScores = new int[this.size()];
 		
 		for (int i = 0; i < this.size(); i++) {
-			cardScores[i] = rankScore[this.getCard(i).rank];
+			cardScores[i] = BigTwoCard.getRankScore(this.getCard(i).rank);
 			if (commonSuit != this.getCard(i).suit) {
 				return false;
 			}
@@ -70,4 +51,12 @@ public class StraightFlush extends Hand {
 	public String getType() {
 		return "StraightFlush";
 	}
+	
+	/**
+	 * a method for returning the category of this hand
+	 * @return int value specifying the category of this hand
+	 */
+	public int getCategory() {
+		return BigTwoHandClassifier.STRAIGHT_FLUSH;
+	}
 }
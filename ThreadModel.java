@@ -0,0 +1,103 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This enum is used to select how the connections of a card game server (or
+ * client) are served. In the SELECTOR model, a single thread serves all the
+ * connections with non-blocking I/O. In the PLATFORM and VIRTUAL models, each
+ * connection has its own task doing blocking reads and writes, run on platform
+ * threads or on virtual threads respectively. Virtual threads need Java 21 or
+ * later; on older runtimes the VIRTUAL model falls back to platform threads.
+ * <p>
+ * The default model can be set with the system property "bigtwo.threadModel".
+ *
+ * @author karanvs
+ *
+ */
+public enum ThreadModel {
+	/**
+	 * A single selector thread serving all the connections.
+	 */
+	SELECTOR,
+	/**
+	 * A platform thread per connection task.
+	 */
+	PLATFORM,
+	/**
+	 * A virtual thread per connection task.
+	 */
+	VIRTUAL;
+
+	/**
+	 * The name of the system property holding the default thread model.
+	 */
+	public static final String PROPERTY = "bigtwo.threadModel";
+
+	/**
+	 * Returns the thread model set with the system property
+	 * "bigtwo.threadModel", or the specified model if the property is not set.
+	 *
+	 * @param defaultModel
+	 *            the model returned if the property is not set
+	 * @return the thread model set with the system property
+	 */
+	public static ThreadModel fromSystemProperty(ThreadModel defaultModel) {
+		String name = System.getProperty(PROPERTY);
+		return (name == null) ? defaultModel : valueOf(name.trim().toUpperCase());
+	}
+
+	/**
+	 * Returns true if the connections are served with blocking I/O, i.e., by
+	 * a task per connection.
+	 *
+	 * @return true if this model uses blocking I/O; otherwise false
+	 */
+	public boolean isBlocking() {
+		return this != SELECTOR;
+	}
+
+	/**
+	 * Returns true if virtual threads are supported by the running Java
+	 * runtime.
+	 *
+	 * @return true if virtual threads are supported; otherwise false
+	 */
+	public static boolean isVirtualThreadSupported() {
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return true;
+		} catch (NoSuchMethodException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates and returns an executor running each task on its own thread of
+	 * this model. The executor of the SELECTOR model (and of the VIRTUAL model
+	 * if virtual threads are not supported) uses platform threads.
+	 *
+	 * @param name
+	 *            the prefix of the names of the platform threads
+	 * @return an executor running each task on its own thread
+	 */
+	public ExecutorService newExecutor(String name) {
+		if (this == VIRTUAL && isVirtualThreadSupported()) {
+			try {
+				// looked up reflectively so that the code also runs on Java 17
+				return (ExecutorService) Executors.class.getMethod(
+						"newVirtualThreadPerTaskExecutor").invoke(null);
+			} catch (ReflectiveOperationException ex) {
+				// falls back to platform threads
+			}
+		}
+		AtomicInteger count = new AtomicInteger();
+		ThreadFactory factory = task -> {
+			Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		return Executors.newCachedThreadPool(factory);
+	}
+}
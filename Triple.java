@@ -29,4 +29,12 @@ public class Triple extends Hand {
 	public String getType() {
 		return "Triple";
 	}
+	
+	/**
+	 * a method for returning the category of this hand
+	 * @return int value specifying the category of this hand
+	 */
+	public int getCategory() {
+		return BigTwoHandClassifier.TRIPLE;
+	}
 }
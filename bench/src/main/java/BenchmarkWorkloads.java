@@ -0,0 +1,369 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * This class is used to build the workloads of the benchmarks in the
+ * bigtwo.bench package. JMH requires benchmarks to be in a named package, which
+ * cannot refer to the game classes in the default package, so each workload is
+ * built here and handed to the benchmarks as a Supplier. A workload cycles
+ * through a fixed set of inputs generated from a seed, so that the results are
+ * reproducible and the JIT compiler cannot fold the inputs into constants.
+ *
+ * @author karanvs
+ *
+ */
+public final class BenchmarkWorkloads {
+	// number of inputs of a workload (a power of two)
+	private static final int NUM_OF_INPUTS = 1024;
+	// names of the hand categories, indexed by BigTwoHandClassifier category
+	private static final String[] CATEGORIES = { "SINGLE", "PAIR", "TRIPLE",
+			"STRAIGHT", "FLUSH", "FULL_HOUSE", "QUAD", "STRAIGHT_FLUSH" };
+
+	private BenchmarkWorkloads() {
+	}
+
+	/**
+	 * Creates and returns the specified workload.
+	 *
+	 * @param name
+	 *            the name of the workload (e.g., "composeHand")
+	 * @param param
+	 *            the parameter of the workload (e.g., a hand category such as
+	 *            "FLUSH"), or null if it has none
+	 * @param seed
+	 *            the seed of the inputs of the workload
+	 * @return a Supplier running one operation of the workload on the next
+	 *         input and returning its result
+	 */
+	public static Supplier<Object> create(String name, String param, long seed) {
+		Random random = new Random(seed);
+		switch (name) {
+		case "composeHand":
+			return composeHand(categoryOf(param), random);
+		case "beats":
+			return beats(categoryOf(param), random);
+		case "getTopCard":
+			return getTopCard(categoryOf(param), random);
+		case "generateMoves":
+			return generateMoves(categoryOf(param), random);
+		case "cardListSort":
+			return cardListSort(random);
+		case "cardListContains":
+			return cardListContains(random);
+		case "cardListRemoveCard":
+			return cardListRemoveCard(random);
+		case "playerRemoveCards":
+			return playerRemoveCards(random);
+		case "deckShuffle":
+			return deckShuffle();
+		case "deckShuffleSeeded":
+			return deckShuffleSeeded(random);
+		case "deckInitialize":
+			return deckInitialize();
+		default:
+			throw new IllegalArgumentException("Unknown workload: " + name);
+		}
+	}
+
+	// composes a hand of the category from cards in random order
+	private static Supplier<Object> composeHand(int category, Random random) {
+		CardGamePlayer player = new CardGamePlayer();
+		CardList[] inputs = new CardList[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			inputs[i] = cardListOf(randomCardSet(category, random), random);
+		}
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				return BigTwoEngine.composeHand(player, inputs[next++ & (NUM_OF_INPUTS - 1)]);
+			}
+		};
+	}
+
+	// compares a hand of the category with a random hand of the same size
+	private static Supplier<Object> beats(int category, Random random) {
+		Hand[] hands = randomHands(category, random);
+		Hand[] others = new Hand[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			// five-card hands are compared with any five-card category
+			int otherCategory = (category < BigTwoHandClassifier.STRAIGHT) ? category
+					: BigTwoHandClassifier.STRAIGHT + random.nextInt(5);
+			others[i] = handOf(randomCardSet(otherCategory, random), random);
+		}
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				int i = next++ & (NUM_OF_INPUTS - 1);
+				return hands[i].beats(others[i]);
+			}
+		};
+	}
+
+	// retrieves the top card of a hand of the category
+	private static Supplier<Object> getTopCard(int category, Random random) {
+		Hand[] hands = randomHands(category, random);
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				return hands[next++ & (NUM_OF_INPUTS - 1)].getTopCard();
+			}
+		};
+	}
+
+	// lists the moves of a player holding 13 random cards against a hand of the category
+	private static Supplier<Object> generateMoves(int category, Random random) {
+		long[] cardsInHand = new long[NUM_OF_INPUTS];
+		int[] strengths = new int[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			long lastHand = randomCardSet(category, random);
+			long cards = CardSet.EMPTY;
+			while (CardSet.size(cards) < 13) {
+				cards |= CardSet.bit(random.nextInt(CardSet.NUM_OF_CARDS)) & ~lastHand;
+			}
+			cardsInHand[i] = cards;
+			strengths[i] = BigTwoHandClassifier.getStrength(lastHand);
+		}
+		BigTwoMoveGenerator generator = new BigTwoMoveGenerator();
+		long[] moves = new long[BigTwoMoveGenerator.MAX_NUM_OF_MOVES];
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				int i = next++ & (NUM_OF_INPUTS - 1);
+				generator.generate(cardsInHand[i], strengths[i], false, moves);
+				return moves;
+			}
+		};
+	}
+
+	// refills a list with 13 cards in random order and sorts it
+	private static Supplier<Object> cardListSort(Random random) {
+		Card[][] inputs = new Card[NUM_OF_INPUTS][];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			inputs[i] = randomCards(13, random);
+		}
+		CardList list = new CardList();
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				list.removeAllCards();
+				for (Card card : inputs[next++ & (NUM_OF_INPUTS - 1)]) {
+					list.addCard(card);
+				}
+				list.sort();
+				return list;
+			}
+		};
+	}
+
+	// looks up a random card (held or not) in a list of 13 cards
+	private static Supplier<Object> cardListContains(Random random) {
+		CardList list = new CardList();
+		for (Card card : randomCards(13, random)) {
+			list.addCard(card);
+		}
+		Card[] probes = new Card[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			probes[i] = BigTwoCard.valueOf(random.nextInt(CardSet.NUM_OF_CARDS));
+		}
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				return list.contains(probes[next++ & (NUM_OF_INPUTS - 1)]);
+			}
+		};
+	}
+
+	// removes a random card from a list of 13 cards and adds it back
+	private static Supplier<Object> cardListRemoveCard(Random random) {
+		Card[] cards = randomCards(13, random);
+		CardList list = new CardList();
+		for (Card card : cards) {
+			list.addCard(card);
+		}
+		Card[] inputs = new Card[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			inputs[i] = cards[random.nextInt(cards.length)];
+		}
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				Card card = inputs[next++ & (NUM_OF_INPUTS - 1)];
+				list.removeCard(card);
+				list.addCard(card);
+				return list;
+			}
+		};
+	}
+
+	// removes 5 cards from a player holding 13 cards and deals them back
+	private static Supplier<Object> playerRemoveCards(Random random) {
+		Card[] cards = randomCards(13, random);
+		CardGamePlayer player = new CardGamePlayer();
+		for (Card card : cards) {
+			player.addCard(card);
+		}
+		player.sortCardsInHand();
+		CardList[] inputs = new CardList[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			List<Card> shuffled = new ArrayList<Card>(List.of(cards));
+			Collections.shuffle(shuffled, random);
+			inputs[i] = new CardList();
+			for (Card card : shuffled.subList(0, 5)) {
+				inputs[i].addCard(card);
+			}
+		}
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				CardList hand = inputs[next++ & (NUM_OF_INPUTS - 1)];
+				player.removeCards(hand);
+				for (int i = 0; i < hand.size(); i++) {
+					player.addCard(hand.getCard(i));
+				}
+				return player;
+			}
+		};
+	}
+
+	// shuffles a Big Two deck
+	private static Supplier<Object> deckShuffle() {
+		Deck deck = new BigTwoDeck();
+		return () -> {
+			deck.shuffle();
+			return deck;
+		};
+	}
+
+	// deals a Big Two deck again from the next seed
+	private static Supplier<Object> deckShuffleSeeded(Random random) {
+		Deck deck = new BigTwoDeck();
+		long[] seeds = new long[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			seeds[i] = random.nextLong();
+		}
+		return new Supplier<Object>() {
+			private int next = 0;
+
+			public Object get() {
+				deck.shuffle(seeds[next++ & (NUM_OF_INPUTS - 1)]);
+				return deck;
+			}
+		};
+	}
+
+	// fills a Big Two deck with the 52 cards again
+	private static Supplier<Object> deckInitialize() {
+		Deck deck = new BigTwoDeck();
+		return () -> {
+			deck.initialize();
+			return deck;
+		};
+	}
+
+	// returns the category with the specified name
+	private static int categoryOf(String name) {
+		for (int i = 0; i < CATEGORIES.length; i++) {
+			if (CATEGORIES[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("Unknown hand category: " + name);
+	}
+
+	// returns hands of the category made of random cards
+	private static Hand[] randomHands(int category, Random random) {
+		Hand[] hands = new Hand[NUM_OF_INPUTS];
+		for (int i = 0; i < NUM_OF_INPUTS; i++) {
+			hands[i] = handOf(randomCardSet(category, random), random);
+		}
+		return hands;
+	}
+
+	// returns a random card set forming a hand of the category
+	private static long randomCardSet(int category, Random random) {
+		int size = (category < BigTwoHandClassifier.STRAIGHT) ? category + 1 : 5;
+		while (true) {
+			long cards = CardSet.EMPTY;
+			if (category == BigTwoHandClassifier.STRAIGHT_FLUSH) {
+				// too rare to be drawn at random: builds one directly
+				int suit = random.nextInt(4);
+				int lowScore = 1 + random.nextInt(9);
+				for (int score = lowScore; score < lowScore + 5; score++) {
+					cards |= CardSet.bit(CardSet.ordinal(suit, (score + 1) % 13));
+				}
+				return cards;
+			}
+			if (category == BigTwoHandClassifier.PAIR
+					|| category == BigTwoHandClassifier.TRIPLE
+					|| category == BigTwoHandClassifier.QUAD
+					|| category == BigTwoHandClassifier.FULL_HOUSE) {
+				// draws cards of few ranks so that such hands are frequent
+				int rank = random.nextInt(13);
+				int otherRank = (rank + 1 + random.nextInt(12)) % 13;
+				while (CardSet.size(cards) < size) {
+					int r = (random.nextInt(5) < 3) ? rank : otherRank;
+					cards |= CardSet.bit(CardSet.ordinal(random.nextInt(4), r));
+				}
+			} else if (category == BigTwoHandClassifier.FLUSH) {
+				int suit = random.nextInt(4);
+				while (CardSet.size(cards) < size) {
+					cards |= CardSet.bit(CardSet.ordinal(suit, random.nextInt(13)));
+				}
+			} else if (category == BigTwoHandClassifier.STRAIGHT) {
+				int lowScore = 1 + random.nextInt(9);
+				for (int score = lowScore; score < lowScore + 5; score++) {
+					cards |= CardSet.bit(CardSet.ordinal(random.nextInt(4), (score + 1) % 13));
+				}
+			} else {
+				while (CardSet.size(cards) < size) {
+					cards |= CardSet.bit(random.nextInt(CardSet.NUM_OF_CARDS));
+				}
+			}
+			if (BigTwoHandClassifier.classify(cards) == category) {
+				return cards;
+			}
+		}
+	}
+
+	// returns a list of the cards of the card set in random order
+	private static CardList cardListOf(long cards, Random random) {
+		List<Card> shuffled = new ArrayList<Card>();
+		for (int ordinal = 0; ordinal < CardSet.NUM_OF_CARDS; ordinal++) {
+			if ((cards & CardSet.bit(ordinal)) != 0) {
+				shuffled.add(BigTwoCard.valueOf(ordinal));
+			}
+		}
+		Collections.shuffle(shuffled, random);
+		CardList list = new CardList();
+		for (Card card : shuffled) {
+			list.addCard(card);
+		}
+		return list;
+	}
+
+	// returns the hand formed by the card set
+	private static Hand handOf(long cards, Random random) {
+		return BigTwoEngine.composeHand(new CardGamePlayer(), cardListOf(cards, random));
+	}
+
+	// returns the specified number of distinct random cards
+	private static Card[] randomCards(int numOfCards, Random random) {
+		List<Card> deck = new ArrayList<Card>();
+		for (int ordinal = 0; ordinal < CardSet.NUM_OF_CARDS; ordinal++) {
+			deck.add(BigTwoCard.valueOf(ordinal));
+		}
+		Collections.shuffle(deck, random);
+		return deck.subList(0, numOfCards).toArray(new Card[0]);
+	}
+}
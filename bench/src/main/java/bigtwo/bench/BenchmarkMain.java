@@ -0,0 +1,36 @@
+package bigtwo.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is used to run the benchmarks with the JMH command line. The
+ * allocation profiler (-prof gc) is enabled unless another profiler is given,
+ * so that the allocation rate of each benchmark is reported with its time.
+ *
+ * @author karanvs
+ *
+ */
+public final class BenchmarkMain {
+	private BenchmarkMain() {
+	}
+
+	/**
+	 * main() method for running the benchmarks.
+	 *
+	 * @param args
+	 *            the JMH options and the regular expressions of the benchmarks
+	 *            to run (see java -jar benchmarks.jar -h)
+	 * @throws Exception
+	 *             if the benchmarks cannot be run
+	 */
+	public static void main(String[] args) throws Exception {
+		List<String> options = new ArrayList<String>(Arrays.asList(args));
+		if (!options.contains("-prof")) {
+			options.add(0, "gc");
+			options.add(0, "-prof");
+		}
+		org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+	}
+}
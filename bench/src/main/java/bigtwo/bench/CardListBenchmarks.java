@@ -0,0 +1,88 @@
+package bigtwo.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class is used to benchmark the card lists holding the cards of a
+ * player: sorting, looking up and removing cards.
+ *
+ * @author karanvs
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class CardListBenchmarks {
+	private Supplier<Object> sort;
+	private Supplier<Object> contains;
+	private Supplier<Object> removeCard;
+	private Supplier<Object> removeCards;
+
+	/**
+	 * Creates the workloads.
+	 */
+	@Setup
+	public void setUp() {
+		sort = Workloads.create("cardListSort", null);
+		contains = Workloads.create("cardListContains", null);
+		removeCard = Workloads.create("cardListRemoveCard", null);
+		removeCards = Workloads.create("playerRemoveCards", null);
+	}
+
+	/**
+	 * Refills a list with 13 cards in random order and sorts it (CardList.sort).
+	 *
+	 * @return the sorted list
+	 */
+	@Benchmark
+	public Object sort() {
+		return sort.get();
+	}
+
+	/**
+	 * Looks up a random card in a list of 13 cards (CardList.contains).
+	 *
+	 * @return true if the card is in the list
+	 */
+	@Benchmark
+	public Object contains() {
+		return contains.get();
+	}
+
+	/**
+	 * Removes a card from a list of 13 cards and adds it back
+	 * (CardList.removeCard).
+	 *
+	 * @return the list
+	 */
+	@Benchmark
+	public Object removeCard() {
+		return removeCard.get();
+	}
+
+	/**
+	 * Removes the 5 cards of a hand from a player holding 13 cards and deals
+	 * them back (CardGamePlayer.removeCards).
+	 *
+	 * @return the player
+	 */
+	@Benchmark
+	public Object playerRemoveCards() {
+		return removeCards.get();
+	}
+}
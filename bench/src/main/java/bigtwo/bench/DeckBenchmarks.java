@@ -0,0 +1,74 @@
+package bigtwo.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class is used to benchmark the Big Two deck: filling it with the 52
+ * cards, shuffling it and dealing it again from a seed.
+ *
+ * @author karanvs
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DeckBenchmarks {
+	private Supplier<Object> initialize;
+	private Supplier<Object> shuffle;
+	private Supplier<Object> shuffleSeeded;
+
+	/**
+	 * Creates the workloads.
+	 */
+	@Setup
+	public void setUp() {
+		initialize = Workloads.create("deckInitialize", null);
+		shuffle = Workloads.create("deckShuffle", null);
+		shuffleSeeded = Workloads.create("deckShuffleSeeded", null);
+	}
+
+	/**
+	 * Fills a deck with the 52 cards again (Deck.initialize).
+	 *
+	 * @return the deck
+	 */
+	@Benchmark
+	public Object initialize() {
+		return initialize.get();
+	}
+
+	/**
+	 * Shuffles a deck (Deck.shuffle).
+	 *
+	 * @return the deck
+	 */
+	@Benchmark
+	public Object shuffle() {
+		return shuffle.get();
+	}
+
+	/**
+	 * Fills a deck and shuffles it with a new seed (Deck.shuffle(long)).
+	 *
+	 * @return the deck
+	 */
+	@Benchmark
+	public Object shuffleSeeded() {
+		return shuffleSeeded.get();
+	}
+}
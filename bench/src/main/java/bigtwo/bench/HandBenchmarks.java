@@ -0,0 +1,96 @@
+package bigtwo.bench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class is used to benchmark the hands of Big Two: composing a hand from
+ * the cards played, comparing two hands, retrieving the top card of a hand and
+ * listing the moves beating a hand, for each hand category.
+ *
+ * @author karanvs
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class HandBenchmarks {
+	/**
+	 * The category of the hands.
+	 */
+	@Param({ "SINGLE", "PAIR", "TRIPLE", "STRAIGHT", "FLUSH", "FULL_HOUSE", "QUAD",
+			"STRAIGHT_FLUSH" })
+	public String category;
+
+	private Supplier<Object> composeHand;
+	private Supplier<Object> beats;
+	private Supplier<Object> getTopCard;
+	private Supplier<Object> generateMoves;
+
+	/**
+	 * Creates the workloads for the category.
+	 */
+	@Setup
+	public void setUp() {
+		composeHand = Workloads.create("composeHand", category);
+		beats = Workloads.create("beats", category);
+		getTopCard = Workloads.create("getTopCard", category);
+		generateMoves = Workloads.create("generateMoves", category);
+	}
+
+	/**
+	 * Composes a hand from cards in random order (BigTwoEngine.composeHand).
+	 *
+	 * @return the hand composed
+	 */
+	@Benchmark
+	public Object composeHand() {
+		return composeHand.get();
+	}
+
+	/**
+	 * Compares a hand with a random hand of the same size (Hand.beats).
+	 *
+	 * @return the result of the comparison
+	 */
+	@Benchmark
+	public Object beats() {
+		return beats.get();
+	}
+
+	/**
+	 * Retrieves the top card of a hand (Hand.getTopCard).
+	 *
+	 * @return the top card
+	 */
+	@Benchmark
+	public Object getTopCard() {
+		return getTopCard.get();
+	}
+
+	/**
+	 * Lists the moves of a player holding 13 cards against a hand
+	 * (BigTwoMoveGenerator.generate).
+	 *
+	 * @return the moves
+	 */
+	@Benchmark
+	public Object generateMoves() {
+		return generateMoves.get();
+	}
+}
@@ -0,0 +1,41 @@
+package bigtwo.bench;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * This class is used to create the workloads of the benchmarks. The game
+ * classes are in the default package, which a named package cannot import, so
+ * the workloads are created by BenchmarkWorkloads (in the default package) and
+ * looked up by reflection once, when the state of a benchmark is set up.
+ *
+ * @author karanvs
+ *
+ */
+final class Workloads {
+	// the seed of the inputs of all the workloads, for reproducible results
+	private static final long SEED = 0x5EED2396L;
+
+	private Workloads() {
+	}
+
+	/**
+	 * Creates and returns the specified workload.
+	 *
+	 * @param name
+	 *            the name of the workload
+	 * @param param
+	 *            the parameter of the workload, or null if it has none
+	 * @return a Supplier running one operation of the workload per call
+	 */
+	@SuppressWarnings("unchecked")
+	static Supplier<Object> create(String name, String param) {
+		try {
+			Method create = Class.forName("BenchmarkWorkloads").getMethod("create", String.class,
+					String.class, long.class);
+			return (Supplier<Object>) create.invoke(null, name, param, SEED);
+		} catch (ReflectiveOperationException ex) {
+			throw new IllegalStateException("Cannot create the workload " + name, ex);
+		}
+	}
+}
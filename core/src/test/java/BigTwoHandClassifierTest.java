@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the BigTwoHandClassifier class against the classification it
+ * replaced: trying StraightFlush, Quad, FullHouse, Flush and Straight (or
+ * Single, Pair and Triple) in turn and keeping the first valid hand. Every set
+ * of 1, 2, 3 and 5 cards of the deck is checked, so the category and the top
+ * card of the classifier must agree with the isValid and getTopCard methods of
+ * the Hand subclasses on all of them.
+ *
+ * @author karanvs
+ *
+ */
+class BigTwoHandClassifierTest {
+	// the subclasses, in the order in which they were tried
+	private static final List<BiFunction<CardGamePlayer, CardList, Hand>> SUBCLASSES = List.of(
+			StraightFlush::new, Quad::new, FullHouse::new, Flush::new, Straight::new, Triple::new,
+			Pair::new, Single::new);
+
+	@Test
+	void setsOfOneToThreeCardsMatchTheSubclasses() {
+		for (int a = 0; a < CardSet.NUM_OF_CARDS; a++) {
+			assertMatches(CardSet.bit(a));
+			for (int b = a + 1; b < CardSet.NUM_OF_CARDS; b++) {
+				assertMatches(CardSet.bit(a) | CardSet.bit(b));
+				for (int c = b + 1; c < CardSet.NUM_OF_CARDS; c++) {
+					assertMatches(CardSet.bit(a) | CardSet.bit(b) | CardSet.bit(c));
+				}
+			}
+		}
+	}
+
+	@Test
+	void setsOfFiveCardsMatchTheSubclasses() {
+		int[] numOfHands = new int[8];
+		for (int a = 0; a < CardSet.NUM_OF_CARDS; a++) {
+			for (int b = a + 1; b < CardSet.NUM_OF_CARDS; b++) {
+				for (int c = b + 1; c < CardSet.NUM_OF_CARDS; c++) {
+					for (int d = c + 1; d < CardSet.NUM_OF_CARDS; d++) {
+						long cards = CardSet.bit(a) | CardSet.bit(b) | CardSet.bit(c) | CardSet.bit(d);
+						for (int e = d + 1; e < CardSet.NUM_OF_CARDS; e++) {
+							int category = assertMatches(cards | CardSet.bit(e));
+							if (category != BigTwoHandClassifier.INVALID) {
+								numOfHands[category]++;
+							}
+						}
+					}
+				}
+			}
+		}
+		// the number of five-card poker hands of each category, where a Big Two
+		// straight runs from 3-4-5-6-7 up to J-Q-K-A-2 (9 straights per suit pattern)
+		assertEquals(9 * (1024 - 4), numOfHands[BigTwoHandClassifier.STRAIGHT]);
+		assertEquals(4 * (1287 - 9), numOfHands[BigTwoHandClassifier.FLUSH]);
+		assertEquals(3744, numOfHands[BigTwoHandClassifier.FULL_HOUSE]);
+		assertEquals(624, numOfHands[BigTwoHandClassifier.QUAD]);
+		assertEquals(4 * 9, numOfHands[BigTwoHandClassifier.STRAIGHT_FLUSH]);
+	}
+
+	@Test
+	void otherSizesAreInvalid() {
+		assertEquals(BigTwoHandClassifier.INVALID, BigTwoHandClassifier.classify(CardSet.EMPTY));
+		Random random = new Random(5L);
+		int[] sizes = { 4, 6, 7, 8, 9, 10, 11, 12, 13 };
+		for (int i = 0; i < 10000; i++) {
+			long cards = CardSet.EMPTY;
+			for (int size = sizes[i % sizes.length]; CardSet.size(cards) < size;) {
+				cards |= CardSet.bit(random.nextInt(CardSet.NUM_OF_CARDS));
+			}
+			assertEquals(BigTwoHandClassifier.INVALID, BigTwoHandClassifier.classify(cards));
+			assertNull(composeHand(cards));
+		}
+	}
+
+	// checks the classifier against the subclasses, and returns the category
+	private static int assertMatches(long cards) {
+		int category = BigTwoHandClassifier.classify(cards);
+		Hand hand = composeHand(cards);
+		Supplier<String> message = () -> "cards 0x" + Long.toHexString(cards);
+		if (hand == null) {
+			assertEquals(BigTwoHandClassifier.INVALID, category, message);
+		} else {
+			assertEquals(hand.getCategory(), category, message);
+			assertEquals(hand.getTopCard().getOrdinal(), BigTwoHandClassifier.getTopCard(cards, category), message);
+		}
+		return category;
+	}
+
+	// the first valid hand of the subclasses tried in turn, or null if none is valid
+	private static Hand composeHand(long cards) {
+		CardList list = new CardList();
+		for (long rest = cards; rest != CardSet.EMPTY; rest &= rest - 1) {
+			list.addCard(BigTwoCard.valueOf(Long.numberOfTrailingZeros(rest)));
+		}
+		for (BiFunction<CardGamePlayer, CardList, Hand> subclass : SUBCLASSES) {
+			Hand hand = subclass.apply(null, list);
+			if (hand.isValid()) {
+				return hand;
+			}
+		}
+		return null;
+	}
+}
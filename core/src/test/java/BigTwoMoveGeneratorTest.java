@@ -0,0 +1,211 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the BigTwoMoveGenerator class against a brute-force reference: the
+ * moves of a player are every subset of 1, 2, 3 or 5 of their cards forming a
+ * hand (see BigTwoEngine.composeHand) which beats the last hand on the table
+ * (see Hand.beats), plus a pass, or every hand (with the three of diamonds in
+ * the first move of a game) when the player leads. The hands are taken from
+ * seeded deals, so a failure can be reproduced.
+ *
+ * @author karanvs
+ *
+ */
+class BigTwoMoveGeneratorTest {
+	// number of deals, each giving four hands of 13 cards and four partly played ones
+	private static final int NUM_OF_DEALS = 25;
+	// number of random last hands of each category played against each hand
+	private static final int NUM_OF_LAST_HANDS = 6;
+	// the three of diamonds
+	private static final long THREE_OF_DIAMONDS = CardSet.bit(CardSet.ordinal(0, 2));
+	// the categories of the hands, and the number of cards of each
+	private static final int[] CATEGORIES = { BigTwoHandClassifier.SINGLE, BigTwoHandClassifier.PAIR,
+			BigTwoHandClassifier.TRIPLE, BigTwoHandClassifier.STRAIGHT, BigTwoHandClassifier.FLUSH,
+			BigTwoHandClassifier.FULL_HOUSE, BigTwoHandClassifier.QUAD, BigTwoHandClassifier.STRAIGHT_FLUSH };
+	private static final int[] SIZES = { 1, 2, 3, 5, 5, 5, 5, 5 };
+
+	private final BigTwoMoveGenerator generator = new BigTwoMoveGenerator();
+	private final long[] moves = new long[BigTwoMoveGenerator.MAX_NUM_OF_MOVES];
+
+	@Test
+	void leadsMatchBruteForce() {
+		for (long cards : hands(1L)) {
+			List<Hand> hands = allHands(cards);
+			long[] expected = new long[hands.size()];
+			for (int i = 0; i < expected.length; i++) {
+				expected[i] = hands.get(i).getCardMask();
+			}
+			assertMoves(expected, cards, BigTwoHandClassifier.INVALID, false);
+		}
+	}
+
+	@Test
+	void openingMovesHoldTheThreeOfDiamonds() {
+		int numOfOpenings = 0;
+		for (long cards : hands(2L)) {
+			long[] expected = allHands(cards).stream().mapToLong(Hand::getCardMask)
+					.filter(move -> (move & THREE_OF_DIAMONDS) != 0).toArray();
+			assertMoves(expected, cards, BigTwoHandClassifier.INVALID, true);
+			if ((cards & THREE_OF_DIAMONDS) != 0) {
+				// the three of diamonds can always be played on its own
+				assertNotEquals(0, expected.length);
+				numOfOpenings++;
+			}
+		}
+		assertNotEquals(0, numOfOpenings);
+	}
+
+	@Test
+	void followingEachCategoryMatchesBruteForce() {
+		Random random = new Random(3L);
+		List<Hand> lastHands = new ArrayList<Hand>();
+		for (int i = 0; i < CATEGORIES.length; i++) {
+			for (int j = 0; j < NUM_OF_LAST_HANDS; j++) {
+				lastHands.add(toHand(randomHand(random, CATEGORIES[i], SIZES[i])));
+			}
+		}
+		// the weakest and the strongest single, which every single beats and none beats
+		lastHands.add(toHand(THREE_OF_DIAMONDS));
+		lastHands.add(toHand(CardSet.bit(CardSet.ordinal(3, 1))));
+
+		for (long cards : hands(4L)) {
+			List<Hand> hands = allHands(cards);
+			CardList cardsInHand = toCardList(cards);
+			for (Hand lastHand : lastHands) {
+				long[] expected = hands.stream().filter(hand -> hand.beats(lastHand))
+						.mapToLong(Hand::getCardMask).toArray();
+				// a pass is always a legal move when following
+				expected = Arrays.copyOf(expected, expected.length + 1);
+				assertMoves(expected, cards, lastHand.getStrength(), false);
+
+				int numOfMoves = generator.generate(cardsInHand, lastHand, false, moves);
+				assertArrayEquals(sorted(expected), sorted(Arrays.copyOf(moves, numOfMoves)));
+			}
+		}
+	}
+
+	// checks that the moves generated are exactly the expected ones
+	private void assertMoves(long[] expected, long cards, int strengthToBeat, boolean firstMove) {
+		int numOfMoves = generator.generate(cards, strengthToBeat, firstMove, moves);
+		assertArrayEquals(sorted(expected), sorted(Arrays.copyOf(moves, numOfMoves)),
+				() -> "cards 0x" + Long.toHexString(cards) + ", strength to beat " + strengthToBeat
+						+ ", first move " + firstMove);
+	}
+
+	// the hands of 13 cards of seeded deals, and the same hands with some cards played
+	private static List<Long> hands(long seed) {
+		Random random = new Random(seed);
+		List<Long> hands = new ArrayList<Long>();
+		BigTwoDeck deck = new BigTwoDeck();
+		for (int i = 0; i < NUM_OF_DEALS; i++) {
+			deck.initialize();
+			deck.shuffle(random.nextLong());
+			CardGameDeal deal = CardGameDeal.deal(deck, 4);
+			for (int j = 0; j < deal.getNumOfPlayers(); j++) {
+				long cards = deal.getCards(j);
+				hands.add(cards);
+				for (int k = random.nextInt(12) + 1; k > 0; k--) {
+					// removes a random card of the hand
+					long rest = cards;
+					for (int n = random.nextInt(CardSet.size(cards)); n > 0; n--) {
+						rest &= rest - 1;
+					}
+					cards &= ~Long.lowestOneBit(rest);
+				}
+				hands.add(cards);
+			}
+		}
+		return hands;
+	}
+
+	// every hand formed by a subset of 1, 2, 3 or 5 of the specified cards
+	private static List<Hand> allHands(long cards) {
+		List<Hand> hands = new ArrayList<Hand>();
+		addHands(hands, cards, CardSet.EMPTY);
+		return hands;
+	}
+
+	private static void addHands(List<Hand> hands, long cards, long subset) {
+		int size = CardSet.size(subset);
+		if (size == 1 || size == 2 || size == 3 || size == 5) {
+			Hand hand = BigTwoEngine.composeHand(null, toCardList(subset));
+			if (hand != null) {
+				hands.add(hand);
+			}
+		}
+		if (size == 5) {
+			return;
+		}
+		for (long rest = cards; rest != CardSet.EMPTY; rest &= rest - 1) {
+			long card = Long.lowestOneBit(rest);
+			// the cards of a subset are added in increasing order, so each subset is built once
+			addHands(hands, rest & ~card, subset | card);
+		}
+	}
+
+	// a random hand of the specified category
+	private static long randomHand(Random random, int category, int size) {
+		while (true) {
+			long cards = CardSet.EMPTY;
+			int rank = random.nextInt(13), suit = random.nextInt(4);
+			int lowScore = random.nextInt(9) + 1;
+			for (int i = 0; i < size; i++) {
+				switch (category) {
+				case BigTwoHandClassifier.SINGLE:
+				case BigTwoHandClassifier.PAIR:
+				case BigTwoHandClassifier.TRIPLE:
+				case BigTwoHandClassifier.QUAD:
+				case BigTwoHandClassifier.FULL_HOUSE:
+					// cards of one rank, then of another one
+					cards |= CardSet.bit(CardSet.ordinal(random.nextInt(4),
+							(i < (category == BigTwoHandClassifier.FULL_HOUSE ? 3 : 4)) ? rank : (rank + 1
+									+ random.nextInt(12)) % 13));
+					break;
+				case BigTwoHandClassifier.FLUSH:
+					cards |= CardSet.bit(CardSet.ordinal(suit, random.nextInt(13)));
+					break;
+				case BigTwoHandClassifier.STRAIGHT:
+					cards |= CardSet.bit(CardSet.ordinal(random.nextInt(4), (lowScore + i + 1) % 13));
+					break;
+				default:
+					cards |= CardSet.bit(CardSet.ordinal(suit, (lowScore + i + 1) % 13));
+					break;
+				}
+			}
+			if (CardSet.size(cards) == size && BigTwoHandClassifier.classify(cards) == category) {
+				return cards;
+			}
+		}
+	}
+
+	private static Hand toHand(long cards) {
+		Hand hand = BigTwoEngine.composeHand(null, toCardList(cards));
+		assertNotNull(hand);
+		assertEquals(cards, hand.getCardMask());
+		return hand;
+	}
+
+	private static CardList toCardList(long cards) {
+		CardList list = new CardList();
+		for (; cards != CardSet.EMPTY; cards &= cards - 1) {
+			list.addCard(BigTwoCard.valueOf(Long.numberOfTrailingZeros(cards)));
+		}
+		return list;
+	}
+
+	private static long[] sorted(long[] moves) {
+		long[] sorted = moves.clone();
+		Arrays.sort(sorted);
+		return sorted;
+	}
+}
@@ -0,0 +1,194 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the CardGameMessageCodec class: every type of message must survive
+ * an encode and decode round trip, and truncated or out-of-range frames must
+ * be rejected with an IOException rather than decoded into garbage.
+ *
+ * @author karanvs
+ *
+ */
+class CardGameMessageCodecTest {
+	private final CardGameMessageCodec codec = new CardGameMessageCodec();
+
+	@Test
+	void playerListRoundTrip() throws IOException {
+		String[] names = { "Alice", null, "Jörg 大老二", "" };
+		CardGameMessage message = roundTrip(CardGameMessage.PLAYER_LIST, -1, names);
+		assertArrayEquals(names, (String[]) message.getData());
+	}
+
+	@Test
+	void stringMessagesRoundTrip() throws IOException {
+		int[] types = { CardGameMessage.JOIN, CardGameMessage.QUIT, CardGameMessage.MSG };
+		for (int type : types) {
+			assertEquals("Bob: hello ♠", roundTrip(type, 3, "Bob: hello ♠").getData());
+			assertNull(roundTrip(type, 0, null).getData());
+		}
+	}
+
+	@Test
+	void emptyMessagesRoundTrip() throws IOException {
+		int[] types = { CardGameMessage.FULL, CardGameMessage.READY, CardGameMessage.ILLEGAL_MOVE };
+		for (int type : types) {
+			assertNull(roundTrip(type, -1, null).getData());
+			assertNull(roundTrip(type, 2, null).getData());
+		}
+	}
+
+	@Test
+	void startRoundTrip() throws IOException {
+		BigTwoDeck deck = new BigTwoDeck();
+		deck.shuffle(42L);
+		CardGameDeal deal = CardGameDeal.deal(deck, 4);
+		assertDealEquals(deal, (CardGameDeal) roundTrip(CardGameMessage.START, 1, deal).getData());
+
+		// the view of a player only knows its own cards and the public ones
+		long publicCards = CardSet.bit(CardSet.ordinal(0, 2));
+		CardGameDeal view = deal.getView(1, publicCards);
+		assertDealEquals(view, (CardGameDeal) roundTrip(CardGameMessage.START, 1, view).getData());
+	}
+
+	@Test
+	void moveRoundTrip() throws IOException {
+		int[] cardIdx = { 0, 4, 12, 255 };
+		assertArrayEquals(cardIdx, (int[]) roundTrip(CardGameMessage.MOVE, 0, cardIdx).getData());
+		assertArrayEquals(new int[0], (int[]) roundTrip(CardGameMessage.MOVE, 0, new int[0]).getData());
+		// a pass
+		assertNull(roundTrip(CardGameMessage.MOVE, 2, null).getData());
+
+		long[] sets = { CardSet.EMPTY, CardSet.bit(0), CardSet.bit(51) | CardSet.bit(13) | CardSet.bit(26),
+				CardSet.FULL_DECK };
+		for (long cards : sets) {
+			assertEquals(cards, roundTrip(CardGameMessage.MOVE, 3, cards).getData());
+		}
+	}
+
+	@Test
+	void streamRoundTrip() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		codec.writeMessage(out, new CardGameMessage(CardGameMessage.MSG, 1, "first"));
+		codec.writeMessage(out, new CardGameMessage(CardGameMessage.MOVE, 1, new int[] { 3, 7 }));
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+		assertEquals("first", codec.readMessage(in).getData());
+		assertArrayEquals(new int[] { 3, 7 }, (int[]) codec.readMessage(in).getData());
+		assertThrows(IOException.class, () -> codec.readMessage(in));
+	}
+
+	@Test
+	void truncatedBodiesAreRejected() throws IOException {
+		BigTwoDeck deck = new BigTwoDeck();
+		deck.shuffle(7L);
+		GameMessage[] messages = {
+				new CardGameMessage(CardGameMessage.PLAYER_LIST, 0, new String[] { "Alice", null, "Bob" }),
+				new CardGameMessage(CardGameMessage.JOIN, 1, "Carol"),
+				new CardGameMessage(CardGameMessage.MSG, 1, "hello"),
+				new CardGameMessage(CardGameMessage.START, 2, CardGameDeal.deal(deck, 4).getView(2, 0L)),
+				new CardGameMessage(CardGameMessage.MOVE, 3, new int[] { 1, 2, 3 }),
+				new CardGameMessage(CardGameMessage.MOVE, 3, null),
+				new CardGameMessage(CardGameMessage.MOVE, 0, CardSet.bit(5) | CardSet.bit(18)),
+				new CardGameMessage(CardGameMessage.READY, 0, null) };
+		for (GameMessage message : messages) {
+			ByteBuffer frame = codec.encode(message);
+			byte[] body = Arrays.copyOfRange(frame.array(), 4, frame.limit());
+			for (int length = 0; length < body.length; length++) {
+				ByteBuffer truncated = ByteBuffer.wrap(body, 0, length);
+				assertThrows(IOException.class, () -> codec.decode(truncated),
+						"type " + message.getType() + " truncated to " + length + " bytes");
+			}
+		}
+	}
+
+	@Test
+	void truncatedFramesAreRejected() throws IOException {
+		ByteBuffer frame = codec.encode(new CardGameMessage(CardGameMessage.MSG, 0, "hello"));
+		for (int length = 0; length < frame.limit(); length++) {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame.array(), 0, length));
+			assertThrows(IOException.class, () -> codec.readMessage(in));
+		}
+	}
+
+	@Test
+	void outOfRangeFramesAreRejected() {
+		assertFrameRejected(-1);
+		assertFrameRejected(CardGameMessageCodec.MAX_FRAME_LENGTH + 1);
+		assertFrameRejected(Integer.MAX_VALUE);
+
+		// unknown types
+		assertBodyRejected(9, 0);
+		assertBodyRejected(255, 0);
+		// cards beyond the deck in a move and in a deal
+		assertBodyRejected(CardGameMessage.MOVE, 0, 254, 1, 52);
+		assertBodyRejected(CardGameMessage.MOVE, 0, 254, 2, 0, 200);
+		assertBodyRejected(CardGameMessage.START, 0, 254, 1, 1, 1, 52);
+		// a START without the deal marker (e.g., the deck sent by old servers)
+		assertBodyRejected(CardGameMessage.START, 0, 2, 0, 1);
+		// a deal in which a player holds fewer cards than are known
+		assertBodyRejected(CardGameMessage.START, 0, 254, 1, 1, 2, 0, 1);
+	}
+
+	@Test
+	void invalidMessagesAreNotEncoded() {
+		assertEncodeRejected(new CardGameMessage(9, 0, null));
+		assertEncodeRejected(new CardGameMessage(CardGameMessage.MOVE, 0, new int[] { 256 }));
+		assertEncodeRejected(new CardGameMessage(CardGameMessage.MOVE, 0, new int[] { -1 }));
+		assertEncodeRejected(new CardGameMessage(CardGameMessage.MOVE, 0, new int[254]));
+		assertEncodeRejected(new CardGameMessage(CardGameMessage.MOVE, 0, 1L << CardSet.NUM_OF_CARDS));
+		assertEncodeRejected(new CardGameMessage(CardGameMessage.START, 0,
+				new CardGameDeal(new long[] { -1L }, new int[] { 64 })));
+	}
+
+	// encodes and decodes a message, checking the length, type and playerID of the frame
+	private CardGameMessage roundTrip(int type, int playerID, Object data) throws IOException {
+		ByteBuffer frame = codec.encode(new CardGameMessage(type, playerID, data));
+		assertEquals(frame.remaining() - 4, frame.getInt(frame.position()));
+		frame.position(frame.position() + 4);
+		CardGameMessage message = codec.decode(frame);
+		assertEquals(0, frame.remaining());
+		assertEquals(type, message.getType());
+		assertEquals(playerID, message.getPlayerID());
+		return message;
+	}
+
+	private static void assertDealEquals(CardGameDeal expected, CardGameDeal actual) {
+		assertEquals(expected.getNumOfPlayers(), actual.getNumOfPlayers());
+		for (int i = 0; i < expected.getNumOfPlayers(); i++) {
+			assertEquals(expected.getCards(i), actual.getCards(i));
+			assertEquals(expected.getNumOfCards(i), actual.getNumOfCards(i));
+		}
+	}
+
+	private void assertFrameRejected(int length) {
+		ByteBuffer header = ByteBuffer.allocate(8).putInt(length).putInt(0);
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(header.array()));
+		assertThrows(IOException.class, () -> codec.readFrame(in), "frame length " + length);
+	}
+
+	private void assertBodyRejected(int... body) {
+		byte[] bytes = new byte[body.length];
+		for (int i = 0; i < body.length; i++) {
+			bytes[i] = (byte) body[i];
+		}
+		assertThrows(IOException.class, () -> codec.decode(ByteBuffer.wrap(bytes)),
+				"body " + Arrays.toString(body));
+	}
+
+	private void assertEncodeRejected(GameMessage message) {
+		assertThrows(IOException.class, () -> codec.encode(message), "type " + message.getType());
+	}
+}